@@ -0,0 +1,56 @@
+package org.wildfly.prospero.extras.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * YAML serialization and parsing of manifests, including the schema validation done by {@link ChannelManifestMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManifestMapperBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int streams;
+
+    private ChannelManifest manifest;
+    private String yaml;
+
+    @Setup
+    public void setUp() {
+        manifest = Manifests.generate(streams, 1);
+        yaml = ChannelManifestMapper.toYaml(manifest);
+    }
+
+    @Benchmark
+    public String toYaml() {
+        return ChannelManifestMapper.toYaml(manifest);
+    }
+
+    @Benchmark
+    public ChannelManifest fromYaml() {
+        return ChannelManifestMapper.fromString(yaml);
+    }
+
+    @Benchmark
+    public ChannelManifest roundTrip() {
+        return ChannelManifestMapper.fromString(ChannelManifestMapper.toYaml(manifest));
+    }
+}
@@ -0,0 +1,64 @@
+package org.wildfly.prospero.extras.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.installationmanager.ArtifactChange;
+import org.wildfly.prospero.extras.manifest.diff.ManifestsDiffCommand;
+import org.wildfly.prospero.extras.manifest.merge.ManifestMergeCommand;
+import org.wildfly.prospero.extras.manifest.merge.VersionMergeStrategy;
+import org.wildfly.prospero.extras.manifest.subtract.ManifestSubtractCommand;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManifestOperationsBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int streams;
+
+    private ChannelManifest manifestOne;
+    private ChannelManifest manifestTwo;
+
+    @Setup
+    public void setUp() {
+        manifestOne = Manifests.generate(streams, 1);
+        manifestTwo = Manifests.generate(streams, 2);
+    }
+
+    @Benchmark
+    public ChannelManifest mergeLatest() {
+        return ManifestMergeCommand.merge(manifestOne, manifestTwo, VersionMergeStrategy.Strategies.LATEST, null, null);
+    }
+
+    @Benchmark
+    public ChannelManifest mergeFirst() {
+        return ManifestMergeCommand.merge(manifestOne, manifestTwo, VersionMergeStrategy.Strategies.FIRST, null, null);
+    }
+
+    @Benchmark
+    public ChannelManifest subtract() {
+        return ManifestSubtractCommand.subtract(manifestOne, manifestTwo, Collections.emptyList());
+    }
+
+    @Benchmark
+    public List<ArtifactChange> diff() {
+        return ManifestsDiffCommand.manifestDiff(manifestOne, manifestTwo);
+    }
+}
@@ -0,0 +1,47 @@
+package org.wildfly.prospero.extras.benchmarks;
+
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates manifests for the benchmarks.
+ */
+public final class Manifests {
+
+    private static final int GROUPS = 500;
+
+    private Manifests() {
+    }
+
+    /**
+     * Generates a manifest with {@code streams} streams spread over a fixed number of groups.
+     *
+     * Manifests generated with a different {@code generation} share 3/4 of the streams. Every other shared stream has
+     * a different version in each generation, the remaining streams are unique to each generation.
+     *
+     * @param streams - number of streams in the manifest
+     * @param generation - used to create different versions of the same manifest
+     */
+    public static ChannelManifest generate(int streams, int generation) {
+        final List<Stream> res = new ArrayList<>(streams);
+        final int shared = streams / 4 * 3;
+        for (int i = 0; i < streams; i++) {
+            if (i < shared) {
+                final String version = i % 2 == 0 ? "1." + i + ".Final" : generation + "." + i + ".Final";
+                res.add(new Stream(groupId(i), "artifact-" + i, version));
+            } else {
+                res.add(new Stream(groupId(i), "artifact-" + generation + "-" + i, "1.0.0.Final"));
+            }
+        }
+        return new ChannelManifest("1.0.0", "generated-" + generation, null, null,
+                Collections.emptyList(), res);
+    }
+
+    public static String groupId(int i) {
+        return "org.example.group" + (i % GROUPS);
+    }
+}
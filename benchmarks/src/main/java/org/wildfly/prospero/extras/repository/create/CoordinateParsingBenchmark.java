@@ -0,0 +1,77 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wildfly.prospero.extras.benchmarks.Manifests;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of artifact coordinates from feature pack definitions and from paths in a local Maven repository.
+ *
+ * The benchmark is in the same package as the parsers, because they are not public.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoordinateParsingBenchmark {
+
+    private static final int COORDINATES = 1000;
+
+    private final String[] moduleGavs = new String[COORDINATES];
+    private final String[] localPaths = new String[COORDINATES];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < COORDINATES; i++) {
+            final String groupId = Manifests.groupId(i);
+            final String artifactId = "artifact-" + i;
+            final String version = "1." + i + ".Final";
+            // mix of the formats found in feature packs
+            switch (i % 3) {
+                case 0:
+                    moduleGavs[i] = groupId + ":" + artifactId + ":" + version;
+                    break;
+                case 1:
+                    moduleGavs[i] = groupId + ":" + artifactId + ":${version." + artifactId + ":" + version + "}::jar";
+                    break;
+                default:
+                    moduleGavs[i] = groupId + ":" + artifactId + ":" + version + ":sources:jar";
+            }
+            localPaths[i] = "/" + groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/"
+                    + artifactId + "-" + version + (i % 2 == 0 ? ".jar" : "-sources.jar");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COORDINATES)
+    public void fromModulesGav(Blackhole blackhole) {
+        for (String gav : moduleGavs) {
+            final DefaultArtifact artifact = FeaturePackUtils.fromModulesGav(gav);
+            blackhole.consume(artifact);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COORDINATES)
+    public void fromLocalPath(Blackhole blackhole) {
+        for (String path : localPaths) {
+            final DefaultArtifact artifact = CoordUtils.fromLocalPath(path);
+            blackhole.consume(artifact);
+        }
+    }
+}
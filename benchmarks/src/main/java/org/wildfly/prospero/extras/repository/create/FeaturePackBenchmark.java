@@ -0,0 +1,127 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.benchmarks.Manifests;
+import org.wildfly.prospero.extras.manifest.ManifestIndex;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Reading artifacts of a feature pack zip with {@code streams} artifacts, only some of them present in the manifest.
+ *
+ * A real feature pack, e.g. {@code wildfly-ee-galleon-pack}, can be used instead of the generated one by setting
+ * {@code featurePackZip} to the path of its zip. Every other artifact of the feature pack is then put in the manifest,
+ * and {@code streams} is ignored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeaturePackBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int streams;
+
+    @Param({""})
+    String featurePackZip;
+
+    private File featurePack;
+    private ManifestIndex manifest;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (!featurePackZip.isEmpty()) {
+            featurePack = new File(featurePackZip);
+            manifest = ManifestIndex.of(manifestFor(featurePack));
+            return;
+        }
+
+        manifest = ManifestIndex.of(Manifests.generate(streams, 1));
+
+        featurePack = File.createTempFile("feature-pack", ".zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(featurePack.toPath()))) {
+            zip.putNextEntry(new ZipEntry("feature-pack.xml"));
+            zip.write("<feature-pack/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("resources/wildfly/artifact-versions.properties"));
+            final StringBuilder properties = new StringBuilder();
+            for (int i = 0; i < streams; i++) {
+                // odd artifacts are not in the manifest
+                final String artifactId = i % 2 == 0 ? "artifact-" + i : "other-" + i;
+                properties.append(Manifests.groupId(i)).append(':').append(artifactId).append('=')
+                        .append(Manifests.groupId(i)).append(':').append(artifactId).append(":1.0.0.Final::jar\n");
+            }
+            zip.write(properties.toString().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (featurePackZip.isEmpty()) {
+            Files.deleteIfExists(featurePack.toPath());
+        }
+    }
+
+    @Benchmark
+    public Set<Artifact> getArtifactsFromFeaturePackZip() throws IOException {
+        return FeaturePackUtils.getArtifactsFromFeaturePackZip(featurePack, manifest);
+    }
+
+    private static ChannelManifest manifestFor(File zipFile) throws IOException {
+        final List<Stream> streams = new ArrayList<>();
+        try (ZipFile archive = new ZipFile(zipFile)) {
+            final ZipEntry entry = archive.getEntry("resources/wildfly/artifact-versions.properties");
+            if (entry == null) {
+                throw new IllegalArgumentException(zipFile + " doesn't list any artifacts");
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(archive.getInputStream(entry), StandardCharsets.UTF_8))) {
+                String line;
+                int i = 0;
+                while ((line = reader.readLine()) != null) {
+                    final int separator = line.indexOf('=');
+                    if (separator < 0 || line.startsWith("#")) {
+                        continue;
+                    }
+                    final DefaultArtifact artifact = FeaturePackUtils.fromModulesGav(line.substring(separator + 1));
+                    // odd artifacts are not in the manifest
+                    if (artifact != null && i++ % 2 == 0) {
+                        streams.add(new Stream(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion()));
+                    }
+                }
+            }
+        }
+        return new ChannelManifest("1.0.0", zipFile.getName(), null, null, Collections.emptyList(), streams);
+    }
+}
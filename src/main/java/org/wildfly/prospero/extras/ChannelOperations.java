@@ -8,20 +8,27 @@ import org.jboss.galleon.ProvisioningException;
 import org.wildfly.channel.Channel;
 import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelManifestCoordinate;
-import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.channel.ChannelMapper;
 import org.wildfly.channel.MavenCoordinate;
+import org.wildfly.prospero.extras.manifest.ManifestParseCache;
 import org.wildfly.prospero.extras.repository.create.MavenDownloader;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class ChannelOperations {
 
+    private static final int MAX_CONCURRENT_MANIFEST_DOWNLOADS = 10;
+
     public static List<Channel> read(Path path) {
         try {
             return ChannelMapper.fromString(Files.readString(path));
@@ -30,20 +37,59 @@ public class ChannelOperations {
         }
     }
 
-    public static ChannelManifestDownload getChannelManifest(Channel channel) throws ProvisioningException, ArtifactResolutionException, MalformedURLException, VersionRangeResolutionException {
-        final List<RemoteRepository> repositories = channel.getRepositories().stream()
-            .map(r -> new RemoteRepository.Builder(r.getId(), "default", r.getUrl()).build())
-            .collect(Collectors.toList());
-
-        final MavenDownloader downloader = new MavenDownloader(repositories);
+    public static ChannelManifestDownload getChannelManifest(Channel channel) throws ProvisioningException, ArtifactResolutionException, IOException, VersionRangeResolutionException {
+        final MavenDownloader downloader = new MavenDownloader(toRemoteRepositories(channel));
         return getChannelManifest(channel, downloader);
     }
 
-    public static ChannelManifestDownload getChannelManifest(Channel channel, MavenDownloader downloader) throws VersionRangeResolutionException, ArtifactResolutionException, MalformedURLException {
+    /**
+     * Fetches manifests of all the {@code channels} concurrently, using a single repository system and session.
+     *
+     * @return - the manifests in the same order as the {@code channels}
+     */
+    public static List<ChannelManifestDownload> getChannelManifests(List<Channel> channels) throws ProvisioningException, ArtifactResolutionException, IOException, VersionRangeResolutionException {
+        if (channels.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final MavenDownloader sharedDownloader = new MavenDownloader(Collections.emptyList());
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(channels.size(), MAX_CONCURRENT_MANIFEST_DOWNLOADS));
+        try {
+            final List<Future<ChannelManifestDownload>> futures = new ArrayList<>();
+            for (Channel channel : channels) {
+                final MavenDownloader downloader = sharedDownloader.withRepositories(toRemoteRepositories(channel));
+                futures.add(executorService.submit(() -> getChannelManifest(channel, downloader)));
+            }
+
+            final List<ChannelManifestDownload> manifests = new ArrayList<>();
+            for (Future<ChannelManifestDownload> future : futures) {
+                manifests.add(future.get());
+            }
+            return manifests;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ArtifactResolutionException) {
+                throw (ArtifactResolutionException) e.getCause();
+            } else if (e.getCause() instanceof VersionRangeResolutionException) {
+                throw (VersionRangeResolutionException) e.getCause();
+            } else if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    public static ChannelManifestDownload getChannelManifest(Channel channel, MavenDownloader downloader) throws VersionRangeResolutionException, ArtifactResolutionException, IOException {
         ChannelManifest manifest;
 
         if (channel.getManifestCoordinate().getUrl() != null) {
-            manifest = ChannelManifestMapper.from(channel.getManifestCoordinate().getUrl());
+            manifest = ManifestParseCache.getInstance().from(channel.getManifestCoordinate().getUrl());
             return new ChannelManifestDownload(manifest, null);
         } else {
             final MavenCoordinate coord = channel.getManifestCoordinate().getMaven();
@@ -51,12 +97,18 @@ public class ChannelOperations {
 
             System.out.println("Using manifest: " + manifestArtifact);
 
-            manifest = ChannelManifestMapper.from(manifestArtifact.getFile().toURI().toURL());
+            manifest = ManifestParseCache.getInstance().from(manifestArtifact.getFile().toPath());
 
             return new ChannelManifestDownload(manifest, manifestArtifact);
         }
     }
 
+    private static List<RemoteRepository> toRemoteRepositories(Channel channel) {
+        return channel.getRepositories().stream()
+            .map(r -> new RemoteRepository.Builder(r.getId(), "default", r.getUrl()).build())
+            .collect(Collectors.toList());
+    }
+
     public static final class ChannelManifestDownload {
         public ChannelManifest manifest;
         public Artifact manifestArtifact;
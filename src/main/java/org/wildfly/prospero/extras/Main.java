@@ -17,6 +17,7 @@
 
 package org.wildfly.prospero.extras;
 
+import org.wildfly.prospero.extras.batch.BatchCommand;
 import org.wildfly.prospero.extras.bundle.create.CreateBundleCommand;
 import org.wildfly.prospero.extras.channel.ChannelCommands;
 import org.wildfly.prospero.extras.channel.merge.ChannelMergeCommand;
@@ -25,11 +26,14 @@ import org.wildfly.prospero.extras.manifest.diff.ManifestsDiffCommand;
 import org.wildfly.prospero.extras.manifest.download.DownloadDiffCommand;
 import org.wildfly.prospero.extras.manifest.from.ManifestFromCommand;
 import org.wildfly.prospero.extras.manifest.merge.ManifestMergeCommand;
+import org.wildfly.prospero.extras.manifest.merge3.ManifestMerge3Command;
 import org.wildfly.prospero.extras.manifest.subtract.ManifestSubtractCommand;
 import org.wildfly.prospero.extras.repoository.RepositoryCommands;
 import org.wildfly.prospero.extras.repository.create.DownloadArtifactListCommand;
 import org.wildfly.prospero.extras.repository.create.DownloadRepositoryCommand;
 import org.wildfly.prospero.extras.repository.create.RepositoryDownloadCommands;
+import org.wildfly.prospero.extras.server.ClientCommand;
+import org.wildfly.prospero.extras.server.ServerCommand;
 import picocli.CommandLine;
 
 public class Main {
@@ -46,6 +50,7 @@ public class Main {
         commandLine.addSubcommand(new ManifestsDiffCommand());
         commandLine.addSubcommand(new DownloadDiffCommand());
         commandLine.addSubcommand(new ManifestMergeCommand());
+        commandLine.addSubcommand(new ManifestMerge3Command());
         commandLine.addSubcommand(new ManifestSubtractCommand());
         commandLine.addSubcommand(new ManifestFromCommand());
 
@@ -64,7 +69,12 @@ public class Main {
         repoDownloadCommands.addSubCommand(new DownloadArtifactListCommand());
         repoDownloadCommands.addSubCommand(new DownloadRepositoryCommand());
 
+        commandLine.addSubcommand(new BatchCommand(Main::createCommandLine));
+        commandLine.addSubcommand(new ServerCommand());
+        commandLine.addSubcommand(new ClientCommand());
+
         commandLine.setUsageHelpAutoWidth(true);
+        commandLine.setCaseInsensitiveEnumValuesAllowed(true);
         return commandLine;
     }
 
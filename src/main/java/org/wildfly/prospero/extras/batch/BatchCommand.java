@@ -0,0 +1,210 @@
+package org.wildfly.prospero.extras.batch;
+
+import org.wildfly.prospero.extras.ReturnCodes;
+import org.wildfly.prospero.extras.shared.CommandWithHelp;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Executes commands listed in a script in a single JVM.
+ *
+ * Each line of the script is a command with its arguments, as it would be passed to the tool. Empty lines and lines
+ * starting with {@code #} are ignored. Arguments containing spaces can be quoted. The commands share the Maven session
+ * and the caches, so only the first command pays for bootstrapping them.
+ */
+@CommandLine.Command(name = "batch")
+public class BatchCommand extends CommandWithHelp {
+
+    private static final String STDIN = "-";
+
+    @CommandLine.Parameters(index = "0", arity = "0..1", descriptionKey = "script")
+    Path script;
+
+    @CommandLine.Option(names = {"--threads"})
+    int threads = 1;
+
+    @CommandLine.Option(names = {"--fail-fast"})
+    boolean failFast = false;
+
+    private final Supplier<CommandLine> commandLineFactory;
+
+    /**
+     * @param commandLineFactory - creates a new command line for each executed command, picocli commands keep the
+     *                           parsed arguments in their fields and cannot be shared
+     */
+    public BatchCommand(Supplier<CommandLine> commandLineFactory) {
+        this.commandLineFactory = commandLineFactory;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        final List<BatchEntry> entries;
+        try {
+            entries = readScript();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return ReturnCodes.INVALID_ARGUMENTS;
+        }
+
+        final List<Integer> exitCodes = threads > 1 ? executeInParallel(entries) : executeSequentially(entries);
+
+        System.err.println();
+        System.err.println("Batch summary:");
+        boolean failed = false;
+        for (int i = 0; i < entries.size(); i++) {
+            final Integer exitCode = exitCodes.size() > i ? exitCodes.get(i) : null;
+            System.err.printf("  [line %d] %s: %s%n", entries.get(i).lineNumber,
+                    exitCode == null ? "skipped" : "exit code " + exitCode, entries.get(i).line);
+            failed |= exitCode == null || exitCode != 0;
+        }
+        return failed ? ReturnCodes.ERROR : ReturnCodes.SUCCESS;
+    }
+
+    private List<BatchEntry> readScript() throws IOException {
+        if (script == null || STDIN.equals(script.toString())) {
+            return parse(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        }
+        try (BufferedReader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    private List<Integer> executeSequentially(List<BatchEntry> entries) {
+        final List<Integer> exitCodes = new ArrayList<>();
+        for (BatchEntry entry : entries) {
+            final int exitCode = execute(entry);
+            exitCodes.add(exitCode);
+            if (failFast && exitCode != 0) {
+                break;
+            }
+        }
+        return exitCodes;
+    }
+
+    private List<Integer> executeInParallel(List<BatchEntry> entries) throws InterruptedException {
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (BatchEntry entry : entries) {
+                futures.add(executorService.submit(() -> execute(entry)));
+            }
+            final List<Integer> exitCodes = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                try {
+                    exitCodes.add(future.get());
+                } catch (ExecutionException e) {
+                    System.err.println("Unable to execute command: " + e.getCause());
+                    exitCodes.add(ReturnCodes.ERROR);
+                }
+            }
+            return exitCodes;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private int execute(BatchEntry entry) {
+        System.err.printf("[line %d] %s%n", entry.lineNumber, entry.line);
+        if (!entry.args.isEmpty() && entry.args.get(0).equals("batch")) {
+            System.err.printf("[line %d] Nested batch commands are not supported%n", entry.lineNumber);
+            return ReturnCodes.INVALID_ARGUMENTS;
+        }
+        return commandLineFactory.get().execute(entry.args.toArray(new String[0]));
+    }
+
+    static List<BatchEntry> parse(BufferedReader reader) throws IOException {
+        final List<BatchEntry> entries = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            try {
+                entries.add(new BatchEntry(lineNumber, trimmed, tokenize(trimmed)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Invalid command on line %d: %s", lineNumber, e.getMessage()), e);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Splits the line into arguments on whitespace. Single and double quotes group arguments containing whitespace,
+     * a backslash escapes the next character outside of single quotes.
+     */
+    static List<String> tokenize(String line) {
+        final List<String> args = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '\\') {
+                if (++i == line.length()) {
+                    throw new IllegalArgumentException("unfinished escape sequence");
+                }
+                current.append(line.charAt(i));
+                inArgument = true;
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inArgument = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    args.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                current.append(c);
+                inArgument = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("unclosed quote");
+        }
+        if (inArgument) {
+            args.add(current.toString());
+        }
+        return args;
+    }
+
+    static final class BatchEntry {
+        final int lineNumber;
+        final String line;
+        final List<String> args;
+
+        BatchEntry(int lineNumber, String line, List<String> args) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.args = args;
+        }
+    }
+}
@@ -26,10 +26,9 @@ import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.jboss.logging.Logger;
-import org.wildfly.prospero.api.MavenOptions;
 import org.wildfly.prospero.extras.converters.RepositoriesConverter;
+import org.wildfly.prospero.extras.shared.MavenSessionProvider;
 import org.wildfly.prospero.promotion.ArtifactBundle;
-import org.wildfly.prospero.wfchannel.MavenSessionManager;
 import picocli.CommandLine;
 
 import java.nio.file.Path;
@@ -86,9 +85,9 @@ public class CreateBundleCommand implements Callable<Integer> {
         }
 
         LOG.info("Downloading artifacts");
-        final MavenSessionManager mavenSessionManager = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
-        final RepositorySystem system = mavenSessionManager.newRepositorySystem();
-        final DefaultRepositorySystemSession session = mavenSessionManager.newRepositorySystemSession(system);
+        final MavenSessionProvider sessionProvider = MavenSessionProvider.getInstance();
+        final RepositorySystem system = sessionProvider.getRepositorySystem();
+        final DefaultRepositorySystemSession session = sessionProvider.getSession();
         try {
             final List<ArtifactResult> artifactResults = system.resolveArtifacts(session, requests);
 
@@ -4,7 +4,6 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import org.eclipse.aether.RepositorySystem;
 import org.wildfly.channel.ChannelMapper;
 import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.VersionResult;
@@ -12,7 +11,7 @@ import org.wildfly.channel.maven.VersionResolverFactory;
 import org.wildfly.channel.spi.MavenVersionsResolver;
 import org.wildfly.prospero.extras.ReturnCodes;
 import org.wildfly.prospero.extras.shared.CommandWithHelp;
-import org.wildfly.prospero.wfchannel.MavenSessionManager;
+import org.wildfly.prospero.extras.shared.MavenSessionProvider;
 import picocli.CommandLine;
 
 import java.nio.file.Path;
@@ -38,9 +37,8 @@ public class QueryVersionCommand extends CommandWithHelp {
 
     @Override
     public Integer call() throws Exception {
-        final MavenSessionManager msm = new MavenSessionManager();
-        final RepositorySystem system = msm.newRepositorySystem();
-        MavenVersionsResolver.Factory factory = new VersionResolverFactory(system, msm.newRepositorySystemSession(system));
+        final MavenSessionProvider sessionProvider = MavenSessionProvider.getInstance();
+        MavenVersionsResolver.Factory factory = new VersionResolverFactory(sessionProvider.getRepositorySystem(), sessionProvider.getSession());
 
         ChannelSession ses = new ChannelSession(List.of(ChannelMapper.from(channelFile.toUri().toURL())), factory);
         final VersionResult version = ses.findLatestMavenArtifactVersion(groupId, artifactId, null, null, null);
@@ -18,7 +18,7 @@
 package org.wildfly.prospero.extras.converters;
 
 import org.wildfly.channel.ChannelManifest;
-import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.prospero.extras.manifest.ManifestParseCache;
 import picocli.CommandLine;
 
 import java.nio.file.Files;
@@ -32,6 +32,6 @@ public class ManifestConverter implements CommandLine.ITypeConverter<ChannelMani
             throw new IllegalArgumentException("Path " + pathString + " does not exist");
         }
 
-        return ChannelManifestMapper.from(path.toUri().toURL());
+        return ManifestParseCache.getInstance().from(path);
     }
 }
@@ -0,0 +1,77 @@
+package org.wildfly.prospero.extras.manifest;
+
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable index of manifest streams by {@code groupId} and {@code artifactId}.
+ *
+ * Lookups don't need to build {@code groupId:artifactId} keys and follow the same rules as
+ * {@link ChannelManifest#findStreamFor(String, String)} - an exact match first, then a {@code groupId:*} stream. The index
+ * is safe to share between threads.
+ */
+public final class ManifestIndex {
+
+    private static final String WILDCARD = "*";
+
+    // groupId -> artifactId -> stream
+    private final Map<String, Map<String, Stream>> streams;
+    private final int size;
+
+    private ManifestIndex(Map<String, Map<String, Stream>> streams, int size) {
+        this.streams = streams;
+        this.size = size;
+    }
+
+    public static ManifestIndex of(ChannelManifest manifest) {
+        return of(manifest.getStreams());
+    }
+
+    public static ManifestIndex of(Collection<Stream> streams) {
+        final Map<String, Map<String, Stream>> index = new HashMap<>();
+        int size = 0;
+        for (Stream stream : streams) {
+            final Map<String, Stream> artifacts = index.computeIfAbsent(stream.getGroupId(), g -> new HashMap<>());
+            // if there are duplicates, the first stream wins, as in ChannelManifest#findStreamFor
+            if (artifacts.putIfAbsent(stream.getArtifactId(), stream) == null) {
+                size++;
+            }
+        }
+        index.replaceAll((g, artifacts) -> Collections.unmodifiableMap(artifacts));
+        return new ManifestIndex(Collections.unmodifiableMap(index), size);
+    }
+
+    /**
+     * Finds a stream matching the artifact, falling back to a {@code groupId:*} stream.
+     */
+    public Optional<Stream> findStreamFor(String groupId, String artifactId) {
+        final Map<String, Stream> artifacts = streams.get(groupId);
+        if (artifacts == null) {
+            return Optional.empty();
+        }
+        final Stream stream = artifacts.get(artifactId);
+        return Optional.ofNullable(stream != null ? stream : artifacts.get(WILDCARD));
+    }
+
+    /**
+     * @return - the stream with exactly matching {@code groupId} and {@code artifactId}, or {@code null}
+     */
+    public Stream get(String groupId, String artifactId) {
+        final Map<String, Stream> artifacts = streams.get(groupId);
+        return artifacts == null ? null : artifacts.get(artifactId);
+    }
+
+    public boolean contains(String groupId, String artifactId) {
+        return get(groupId, artifactId) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+}
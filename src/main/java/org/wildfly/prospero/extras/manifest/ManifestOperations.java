@@ -3,6 +3,7 @@ package org.wildfly.prospero.extras.manifest;
 import org.wildfly.channel.ChannelManifest;
 import org.wildfly.installationmanager.ArtifactChange;
 import org.wildfly.prospero.extras.manifest.merge.VersionMergeStrategy;
+import org.wildfly.prospero.extras.manifest.merge3.Merge3Result;
 
 import java.util.List;
 
@@ -28,6 +29,42 @@ public interface ManifestOperations {
                           VersionMergeStrategy.Strategies mergeStrategy,
                           String mergedManifestName, String mergedManifestId);
 
+    /**
+     * Merges streams from any number of manifests in a single pass.
+     *
+     * The result is the same as merging the manifests pairwise in the given order. If the same stream is available in
+     * more than one manifest, the conflict is resolved using a merge strategy.
+     *
+     * @param manifests - manifests to merge, at least one is required
+     * @param mergeStrategy - merging strategy used if the stream is found in more than one manifest
+     * @param mergedManifestName - optional name of the generated manifest
+     * @param mergedManifestId - optional id of the generated manifest
+     * @return - merged manifest
+     */
+    ChannelManifest merge(List<ChannelManifest> manifests,
+                          VersionMergeStrategy.Strategies mergeStrategy,
+                          String mergedManifestName, String mergedManifestId);
+
+    /**
+     * Merges changes made in two manifests since their common ancestor.
+     *
+     * A stream changed in only one of the manifests takes that change, including removing the stream. The merge
+     * strategy is used only if both manifests changed the same stream to different versions, {@code ours} being the
+     * first version. If one of the manifests removed the stream and the other changed it, the changed stream is kept.
+     * All such conflicts are listed in the result.
+     *
+     * @param base - common ancestor of the merged manifests
+     * @param ours - first changed manifest
+     * @param theirs - second changed manifest
+     * @param mergeStrategy - merging strategy used if both manifests changed the stream
+     * @param mergedManifestName - optional name of the generated manifest
+     * @param mergedManifestId - optional id of the generated manifest
+     * @return - merged manifest and the list of conflicts
+     */
+    Merge3Result merge3(ChannelManifest base, ChannelManifest ours, ChannelManifest theirs,
+                        VersionMergeStrategy.Strategies mergeStrategy,
+                        String mergedManifestName, String mergedManifestId);
+
     /**
      * Subtracts streams of two manifests.
      *
@@ -5,6 +5,8 @@ import org.wildfly.installationmanager.ArtifactChange;
 import org.wildfly.prospero.extras.manifest.diff.ManifestsDiffCommand;
 import org.wildfly.prospero.extras.manifest.merge.ManifestMergeCommand;
 import org.wildfly.prospero.extras.manifest.merge.VersionMergeStrategy;
+import org.wildfly.prospero.extras.manifest.merge3.ManifestMerge3Command;
+import org.wildfly.prospero.extras.manifest.merge3.Merge3Result;
 import org.wildfly.prospero.extras.manifest.subtract.ManifestSubtractCommand;
 
 import java.util.List;
@@ -18,6 +20,20 @@ class ManifestOperationsImpl implements ManifestOperations {
         return ManifestMergeCommand.merge(manifestOne, manifestTwo, mergeStrategy, mergedManifestName, mergedManifestId);
     }
 
+    @Override
+    public ChannelManifest merge(List<ChannelManifest> manifests,
+                                 VersionMergeStrategy.Strategies mergeStrategy,
+                                 String mergedManifestName, String mergedManifestId) {
+        return ManifestMergeCommand.merge(manifests, mergeStrategy, mergedManifestName, mergedManifestId);
+    }
+
+    @Override
+    public Merge3Result merge3(ChannelManifest base, ChannelManifest ours, ChannelManifest theirs,
+                               VersionMergeStrategy.Strategies mergeStrategy,
+                               String mergedManifestName, String mergedManifestId) {
+        return ManifestMerge3Command.merge3(base, ours, theirs, mergeStrategy, mergedManifestName, mergedManifestId);
+    }
+
     @Override
     public ChannelManifest subtract(ChannelManifest manifestOne, ChannelManifest manifestTwo,
                                  List<String> exclusions) {
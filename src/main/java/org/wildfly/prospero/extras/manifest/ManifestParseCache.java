@@ -0,0 +1,267 @@
+package org.wildfly.prospero.extras.manifest;
+
+import org.jboss.logging.Logger;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ManifestRequirement;
+import org.wildfly.channel.MavenCoordinate;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.shared.CacheDirectory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Caches parsed manifests between invocations of the tool.
+ *
+ * The manifests are stored in a compact binary form under the cache directory, keyed by the SHA-256 of the manifest
+ * YAML. If the YAML changes, its hash changes as well and the manifest is parsed again. The cache keeps at most
+ * {@code wildfly.prospero.manifest.cache.max_entries} manifests, dropping the least recently used ones. Setting
+ * {@code wildfly.prospero.manifest.cache} to {@code false} disables the cache.
+ */
+public final class ManifestParseCache {
+
+    private static final Logger LOG = Logger.getLogger(ManifestParseCache.class);
+    static final String CACHE_DIR = "manifests";
+    private static final String SUFFIX = ".bin";
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("wildfly.prospero.manifest.cache", "true"));
+    private static final int MAX_ENTRIES = Integer.getInteger("wildfly.prospero.manifest.cache.max_entries", 50);
+
+    // bump if the binary format changes, the entries in the old format are parsed again
+    private static final int MAGIC = 0x504D4331;
+
+    private static final ManifestParseCache INSTANCE = new ManifestParseCache(
+            ENABLED ? CacheDirectory.resolve(CACHE_DIR) : null, MAX_ENTRIES, ChannelManifestMapper::fromString);
+
+    private final Path cacheDir;
+    private final int maxEntries;
+    private final Function<String, ChannelManifest> parser;
+
+    ManifestParseCache(Path cacheDir, int maxEntries, Function<String, ChannelManifest> parser) {
+        this.cacheDir = cacheDir;
+        this.maxEntries = maxEntries;
+        this.parser = parser;
+    }
+
+    public static ManifestParseCache getInstance() {
+        return INSTANCE;
+    }
+
+    public ChannelManifest from(Path path) throws IOException {
+        return parse(Files.readAllBytes(path));
+    }
+
+    public ChannelManifest from(URL url) throws IOException {
+        try (InputStream is = url.openStream()) {
+            return parse(is.readAllBytes());
+        }
+    }
+
+    private ChannelManifest parse(byte[] yaml) {
+        if (cacheDir == null) {
+            return parser.apply(new String(yaml, StandardCharsets.UTF_8));
+        }
+
+        final Path entry = cacheDir.resolve(sha256(yaml) + SUFFIX);
+        if (Files.exists(entry)) {
+            try (InputStream is = new BufferedInputStream(Files.newInputStream(entry))) {
+                final ChannelManifest manifest = read(is);
+                // the modification time marks recently used entries
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+                return manifest;
+            } catch (IOException | RuntimeException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Ignoring invalid cached manifest " + entry, e);
+                }
+            }
+        }
+
+        final ChannelManifest manifest = parser.apply(new String(yaml, StandardCharsets.UTF_8));
+        store(entry, manifest);
+        return manifest;
+    }
+
+    private void store(Path entry, ChannelManifest manifest) {
+        try {
+            Files.createDirectories(cacheDir);
+            final Path tempFile = Files.createTempFile(cacheDir, entry.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                    write(manifest, os);
+                }
+                try {
+                    Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            prune();
+        } catch (IOException e) {
+            // not on stdout, the commands print the manifests there
+            System.err.println("WARNING: Unable to store parsed manifest in " + cacheDir + ": " + e.getMessage());
+        }
+    }
+
+    private void prune() throws IOException {
+        final List<Path> entries;
+        try (java.util.stream.Stream<Path> files = Files.list(cacheDir)) {
+            entries = files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).collect(Collectors.toList());
+        }
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+
+        final Map<Path, Long> lastUsed = new HashMap<>();
+        for (Path f : entries) {
+            try {
+                lastUsed.put(f, Files.getLastModifiedTime(f).toMillis());
+            } catch (IOException e) {
+                // removed by another process in the meantime
+                lastUsed.put(f, 0L);
+            }
+        }
+        entries.sort(Comparator.comparingLong(lastUsed::get));
+        for (Path f : entries.subList(0, entries.size() - maxEntries)) {
+            Files.deleteIfExists(f);
+        }
+    }
+
+    static void write(ChannelManifest manifest, OutputStream os) throws IOException {
+        final DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        writeString(out, manifest.getSchemaVersion());
+        writeString(out, manifest.getName());
+        writeString(out, manifest.getId());
+        writeString(out, manifest.getDescription());
+
+        final List<ManifestRequirement> requirements = manifest.getManifestRequirements();
+        out.writeInt(requirements == null ? 0 : requirements.size());
+        if (requirements != null) {
+            for (ManifestRequirement requirement : requirements) {
+                writeString(out, requirement.getId());
+                final MavenCoordinate coordinate = requirement.getMavenCoordinate();
+                out.writeBoolean(coordinate != null);
+                if (coordinate != null) {
+                    writeString(out, coordinate.getGroupId());
+                    writeString(out, coordinate.getArtifactId());
+                    writeString(out, coordinate.getVersion());
+                }
+            }
+        }
+
+        // groupIds are shared by many streams, so they are stored once and referenced by index
+        final Map<String, Integer> groupIds = new HashMap<>();
+        final List<String> groupIdList = new ArrayList<>();
+        for (Stream stream : manifest.getStreams()) {
+            if (groupIds.putIfAbsent(stream.getGroupId(), groupIdList.size()) == null) {
+                groupIdList.add(stream.getGroupId());
+            }
+        }
+        out.writeInt(groupIdList.size());
+        for (String groupId : groupIdList) {
+            writeString(out, groupId);
+        }
+
+        out.writeInt(manifest.getStreams().size());
+        for (Stream stream : manifest.getStreams()) {
+            out.writeInt(groupIds.get(stream.getGroupId()));
+            writeString(out, stream.getArtifactId());
+            writeString(out, stream.getVersion());
+            writeString(out, stream.getVersionPattern() == null ? null : stream.getVersionPattern().pattern());
+        }
+        out.flush();
+    }
+
+    static ChannelManifest read(InputStream is) throws IOException {
+        final DataInputStream in = new DataInputStream(is);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Unknown format of the cached manifest");
+        }
+        final String schemaVersion = readString(in);
+        final String name = readString(in);
+        final String id = readString(in);
+        final String description = readString(in);
+
+        final int requirementCount = in.readInt();
+        final List<ManifestRequirement> requirements = new ArrayList<>(requirementCount);
+        for (int i = 0; i < requirementCount; i++) {
+            final String requirementId = readString(in);
+            final MavenCoordinate coordinate = in.readBoolean()
+                    ? new MavenCoordinate(readString(in), readString(in), readString(in))
+                    : null;
+            requirements.add(new ManifestRequirement(requirementId, coordinate));
+        }
+
+        final String[] groupIds = new String[in.readInt()];
+        for (int i = 0; i < groupIds.length; i++) {
+            groupIds[i] = readString(in);
+        }
+
+        final int streamCount = in.readInt();
+        final List<Stream> streams = new ArrayList<>(streamCount);
+        for (int i = 0; i < streamCount; i++) {
+            final String groupId = groupIds[in.readInt()];
+            final String artifactId = readString(in);
+            final String version = readString(in);
+            final String versionPattern = readString(in);
+            streams.add(version != null
+                    ? new Stream(groupId, artifactId, version)
+                    : new Stream(groupId, artifactId, Pattern.compile(versionPattern)));
+        }
+
+        return new ChannelManifest(schemaVersion, name, id, description, requirements, streams);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
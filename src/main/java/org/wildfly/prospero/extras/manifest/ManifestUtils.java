@@ -1,7 +1,10 @@
 package org.wildfly.prospero.extras.manifest;
 
+import java.util.Collection;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.version.VersionMatcher;
@@ -23,4 +26,21 @@ public class ManifestUtils {
             schemaVersion = VersionMatcher.getLatestVersion(Set.of(manifestOne.getSchemaVersion(), manifestTwo.getSchemaVersion()));
         return schemaVersion;
     }
+
+    /**
+     * Returns the latest version of the manifest schema used in the input manifests
+     *
+     * @param manifests
+     * @return
+     */
+    public static Optional<String> getLatestSchemaVersion(Collection<ChannelManifest> manifests) {
+        final Set<String> schemaVersions = manifests.stream()
+                .map(ChannelManifest::getSchemaVersion)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (schemaVersions.size() <= 1) {
+            return schemaVersions.stream().findFirst();
+        }
+        return VersionMatcher.getLatestVersion(schemaVersions);
+    }
 }
@@ -0,0 +1,135 @@
+package org.wildfly.prospero.extras.manifest.diff;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.wildfly.installationmanager.ArtifactChange;
+
+import java.io.PrintStream;
+import java.util.function.Consumer;
+
+/**
+ * Writes {@link ArtifactChange}s to an output stream as they are found, without collecting them first.
+ *
+ * {@link #finish()} has to be called after the last change was written.
+ */
+public abstract class DiffWriter implements Consumer<ArtifactChange> {
+
+    public enum Format {
+        /**
+         * human-readable list of changes
+         */
+        TEXT,
+        /**
+         * one JSON object per line
+         */
+        JSONL,
+        /**
+         * YAML list of changes
+         */
+        YAML
+    }
+
+    protected final PrintStream out;
+
+    private DiffWriter(PrintStream out) {
+        this.out = out;
+    }
+
+    public static DiffWriter create(Format format, PrintStream out) {
+        switch (format) {
+            case TEXT:
+                return new TextWriter(out);
+            case JSONL:
+                return new JsonLinesWriter(out);
+            case YAML:
+                return new YamlWriter(out);
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    public void finish() {
+        out.flush();
+    }
+
+    /**
+     * Quotes the value as a JSON string. JSON strings are also valid YAML double-quoted scalars.
+     */
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return '"' + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + '"';
+    }
+
+    private static final class TextWriter extends DiffWriter {
+
+        TextWriter(PrintStream out) {
+            super(out);
+        }
+
+        @Override
+        public void accept(ArtifactChange c) {
+            switch (c.getStatus()) {
+                case REMOVED:
+                    out.printf("%s%n", c.getArtifactName());
+                    out.printf(" - %s:%n", c.getOldVersion());
+                    break;
+                case INSTALLED:
+                    out.printf("%s%n", c.getArtifactName());
+                    out.printf(" + %s%n", c.getNewVersion());
+                    break;
+                case UPDATED:
+                    out.printf("%s:%n", c.getArtifactName());
+                    out.printf(" - %s%n", c.getOldVersion());
+                    out.printf(" + %s%n", c.getNewVersion());
+                    break;
+            }
+        }
+    }
+
+    private static final class JsonLinesWriter extends DiffWriter {
+
+        JsonLinesWriter(PrintStream out) {
+            super(out);
+        }
+
+        @Override
+        public void accept(ArtifactChange c) {
+            out.print("{\"artifact\":");
+            out.print(quote(c.getArtifactName()));
+            out.print(",\"status\":\"");
+            out.print(c.getStatus());
+            out.print("\",\"oldVersion\":");
+            out.print(quote(c.getOldVersion()));
+            out.print(",\"newVersion\":");
+            out.print(quote(c.getNewVersion()));
+            out.println('}');
+        }
+    }
+
+    private static final class YamlWriter extends DiffWriter {
+
+        private boolean empty = true;
+
+        YamlWriter(PrintStream out) {
+            super(out);
+        }
+
+        @Override
+        public void accept(ArtifactChange c) {
+            empty = false;
+            out.println("- artifact: " + quote(c.getArtifactName()));
+            out.println("  status: " + c.getStatus());
+            out.println("  oldVersion: " + quote(c.getOldVersion()));
+            out.println("  newVersion: " + quote(c.getNewVersion()));
+        }
+
+        @Override
+        public void finish() {
+            if (empty) {
+                out.println("[]");
+            }
+            super.finish();
+        }
+    }
+}
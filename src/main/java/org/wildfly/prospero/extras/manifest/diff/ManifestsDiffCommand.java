@@ -27,12 +27,11 @@ import org.wildfly.prospero.extras.converters.ManifestConverter;
 import picocli.CommandLine;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 @CommandLine.Command(name = "manifest-diff")
 public class ManifestsDiffCommand implements Callable<Integer> {
@@ -44,71 +43,134 @@ public class ManifestsDiffCommand implements Callable<Integer> {
     @CommandLine.Parameters(index = "1", converter = ManifestConverter.class)
     private ChannelManifest manifestTwo;
 
+    @CommandLine.Option(names = {"--format"})
+    private DiffWriter.Format format = DiffWriter.Format.TEXT;
+
     @Override
     public Integer call() throws Exception {
+        if (format == DiffWriter.Format.TEXT) {
+            System.out.println();
+        }
 
-
-        List<ArtifactChange> changes = manifestDiff(manifestOne, manifestTwo);
-
-        System.out.println();
-        changes.forEach(c->{
-            switch (c.getStatus()) {
-                case REMOVED:
-                    System.out.printf("%s%n", c.getArtifactName());
-                    System.out.printf(" - %s:%n", c.getOldVersion());
-                    break;
-                case INSTALLED:
-                    System.out.printf("%s%n", c.getArtifactName());
-                    System.out.printf(" + %s%n", c.getNewVersion());
-                    break;
-                case UPDATED:
-                    System.out.printf("%s:%n", c.getArtifactName());
-                    System.out.printf(" - %s%n", c.getOldVersion());
-                    System.out.printf(" + %s%n", c.getNewVersion());
-                    break;
-            }
-        });
+        final DiffWriter writer = DiffWriter.create(format, System.out);
+        manifestDiff(manifestOne, manifestTwo, writer);
+        writer.finish();
 
         return ReturnCodes.SUCCESS;
     }
 
     public static List<ArtifactChange> manifestDiff(ChannelManifest manifestOne, ChannelManifest manifestTwo) {
+        final List<ArtifactChange> changes = new ArrayList<>();
+        manifestDiff(manifestOne, manifestTwo, changes::add);
+        return changes;
+    }
+
+    /**
+     * Compares streams of two manifests and passes the changes to {@code sink} ordered by {@code groupId:artifactId}.
+     *
+     * Both lists of streams are sorted once and walked in a single pass, the changes are not collected.
+     *
+     * @param manifestOne - the original manifest
+     * @param manifestTwo - the updated manifest
+     * @param sink - receives the changes
+     */
+    public static void manifestDiff(ChannelManifest manifestOne, ChannelManifest manifestTwo, Consumer<ArtifactChange> sink) {
         Objects.requireNonNull(manifestOne);
         Objects.requireNonNull(manifestTwo);
+        Objects.requireNonNull(sink);
+
+        final Stream[] streamsOne = sortedStreams(manifestOne);
+        final Stream[] streamsTwo = sortedStreams(manifestTwo);
+
+        int i = 0;
+        int j = 0;
+        while (i < streamsOne.length || j < streamsTwo.length) {
+            final int cmp;
+            if (i == streamsOne.length) {
+                cmp = 1;
+            } else if (j == streamsTwo.length) {
+                cmp = -1;
+            } else {
+                cmp = compareKeys(streamsOne[i], streamsTwo[j]);
+            }
 
-        Map<String, String> versionMapOne = streamToMap(manifestOne);
-
-        Map<String, String> versionMapTwo = streamToMap(manifestTwo);
+            if (cmp < 0) {
+                final Stream removed = streamsOne[i++];
+                sink.accept(new ArtifactChange(getVersion(removed), null, getKey(removed), ArtifactChange.Status.REMOVED));
+            } else if (cmp > 0) {
+                final Stream installed = streamsTwo[j++];
+                sink.accept(new ArtifactChange(null, getVersion(installed), getKey(installed), ArtifactChange.Status.INSTALLED));
+            } else {
+                final String versionOne = getVersion(streamsOne[i]);
+                final String versionTwo = getVersion(streamsTwo[j]);
+                if (!versionTwo.equals(versionOne)) {
+                    sink.accept(new ArtifactChange(versionOne, versionTwo, getKey(streamsOne[i]), ArtifactChange.Status.UPDATED));
+                }
+                i++;
+                j++;
+            }
+        }
+    }
 
-        for (String key: versionMapTwo.keySet()) {
-            if (!versionMapOne.containsKey(key)) {
-                versionMapOne.put(key, null);
+    /**
+     * Sorts the streams by key. If the manifest defines the same stream more than once, the last definition is used.
+     */
+    private static Stream[] sortedStreams(ChannelManifest manifest) {
+        final Stream[] streams = manifest.getStreams().toArray(new Stream[0]);
+        // the sort is stable, so the duplicated streams stay in the original order
+        Arrays.sort(streams, ManifestsDiffCommand::compareKeys);
+
+        int size = 0;
+        for (int i = 0; i < streams.length; i++) {
+            if (size > 0 && compareKeys(streams[size - 1], streams[i]) == 0) {
+                streams[size - 1] = streams[i];
+            } else {
+                streams[size++] = streams[i];
             }
         }
+        return size == streams.length ? streams : Arrays.copyOf(streams, size);
+    }
+
+    /**
+     * Compares {@code groupId:artifactId} keys of the streams as strings, without creating the keys.
+     */
+    static int compareKeys(Stream s1, Stream s2) {
+        final String g1 = s1.getGroupId();
+        final String g2 = s2.getGroupId();
+        if (g1.equals(g2)) {
+            return s1.getArtifactId().compareTo(s2.getArtifactId());
+        }
 
-        List<ArtifactChange> changes = new ArrayList<>();
-
-        for (String key : versionMapOne.keySet()) {
-            final String versionOne = versionMapOne.get(key);
-            final String versionTwo = versionMapTwo.get(key);
-            if (!versionMapTwo.containsKey(key)) {
-                changes.add(new ArtifactChange(versionOne, null, key, ArtifactChange.Status.REMOVED));
-            } else if (versionMapOne.get(key) == null) {
-                changes.add(new ArtifactChange(null, versionTwo, key, ArtifactChange.Status.INSTALLED));
-            } else if (!versionTwo.equals(versionOne)) {
-                changes.add(new ArtifactChange(versionOne, versionTwo, key, ArtifactChange.Status.UPDATED));
+        final String a1 = s1.getArtifactId();
+        final String a2 = s2.getArtifactId();
+        final int length1 = g1.length() + 1 + a1.length();
+        final int length2 = g2.length() + 1 + a2.length();
+        final int common = Math.min(length1, length2);
+        for (int k = 0; k < common; k++) {
+            final char c1 = keyCharAt(g1, a1, k);
+            final char c2 = keyCharAt(g2, a2, k);
+            if (c1 != c2) {
+                return c1 - c2;
             }
         }
-        return changes;
+        return length1 - length2;
     }
 
-    private static Map<String, String> streamToMap(ChannelManifest manifestOne) {
-        final Collection<Stream> streamsOne = manifestOne.getStreams();
-        Map<String, String> versionMapOne = new TreeMap<>();
-        for (Stream stream : streamsOne) {
-            String spec = String.format("%s:%s", stream.getGroupId(), stream.getArtifactId());
-            versionMapOne.put(spec, stream.getVersion() == null?stream.getVersionPattern().toString():stream.getVersion());
+    private static char keyCharAt(String groupId, String artifactId, int index) {
+        if (index < groupId.length()) {
+            return groupId.charAt(index);
+        } else if (index == groupId.length()) {
+            return ':';
+        } else {
+            return artifactId.charAt(index - groupId.length() - 1);
         }
-        return versionMapOne;
+    }
+
+    private static String getKey(Stream stream) {
+        return stream.getGroupId() + ":" + stream.getArtifactId();
+    }
+
+    private static String getVersion(Stream stream) {
+        return stream.getVersion() == null ? stream.getVersionPattern().toString() : stream.getVersion();
     }
 }
@@ -29,11 +29,10 @@ import org.eclipse.aether.resolution.ArtifactResult;
 import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.installationmanager.ArtifactChange;
-import org.wildfly.prospero.api.MavenOptions;
 import org.wildfly.prospero.extras.converters.ManifestConverter;
 import org.wildfly.prospero.extras.converters.RepositoriesConverter;
 import org.wildfly.prospero.extras.manifest.diff.ManifestsDiffCommand;
-import org.wildfly.prospero.wfchannel.MavenSessionManager;
+import org.wildfly.prospero.extras.shared.MavenSessionProvider;
 import picocli.CommandLine;
 
 import java.io.File;
@@ -96,9 +95,9 @@ public class DownloadDiffCommand implements Callable<Integer> {
         }
 
         System.out.println("Downloading artifacts");
-        final MavenSessionManager mavenSessionManager = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
-        final RepositorySystem system = mavenSessionManager.newRepositorySystem();
-        final DefaultRepositorySystemSession session = mavenSessionManager.newRepositorySystemSession(system);
+        final MavenSessionProvider sessionProvider = MavenSessionProvider.getInstance();
+        final RepositorySystem system = sessionProvider.getRepositorySystem();
+        final DefaultRepositorySystemSession session = sessionProvider.getSession();
 
         Path tempFile = null;
         try {
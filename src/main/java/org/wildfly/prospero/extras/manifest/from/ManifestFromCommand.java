@@ -37,16 +37,21 @@ public class ManifestFromCommand implements Callable<Integer> {
     }
 
     public static ChannelManifest manifestFrom(List<Channel> channelPaths) {
-        return channelPaths.stream()
-            .map(channel -> {
-                try {
-                    ChannelOperations.ChannelManifestDownload channelManifestDownload = ChannelOperations.getChannelManifest(channel);
-                    return channelManifestDownload.manifest;
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            })
-            .reduce((m1, m2) -> ManifestMergeCommand.merge(m1, m2, VersionMergeStrategy.Strategies.LATEST, null, null))
-            .orElseThrow(() -> new RuntimeException("Couldn't extract manifest from the provided channels"));
+        // the manifests are fetched concurrently, but merged in the order of the channels
+        final List<ChannelManifest> manifests;
+        try {
+            manifests = ChannelOperations.getChannelManifests(channelPaths).stream()
+                .map(download -> download.manifest)
+                .collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        if (manifests.isEmpty()) {
+            throw new RuntimeException("Couldn't extract manifest from the provided channels");
+        } else if (manifests.size() == 1) {
+            return manifests.get(0);
+        }
+        return ManifestMergeCommand.merge(manifests, VersionMergeStrategy.Strategies.LATEST, null, null);
     }
 }
@@ -4,26 +4,25 @@ import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.channel.Stream;
 import org.wildfly.prospero.extras.ReturnCodes;
+import org.wildfly.prospero.extras.manifest.ManifestParseCache;
 import org.wildfly.prospero.extras.manifest.ManifestUtils;
 import picocli.CommandLine;
 
 import java.nio.file.Path;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
-import java.util.stream.Collectors;
 
 @CommandLine.Command(name = "manifest-merge")
 public class ManifestMergeCommand implements Callable<Integer> {
-    @CommandLine.Parameters(index = "0")
-    Path manifestOne;
-
-    @CommandLine.Parameters(index = "1")
-    Path manifestTwo;
+    @CommandLine.Parameters(arity = "2..*")
+    List<Path> manifests;
 
     @CommandLine.Option(names = {"--mode"}, defaultValue = "LATEST")
     VersionMergeStrategy.Strategies mergeStrategy;
@@ -39,10 +38,12 @@ public class ManifestMergeCommand implements Callable<Integer> {
 
     @Override
     public Integer call() throws Exception {
-        final ChannelManifest manifestOne = ChannelManifestMapper.from(this.manifestOne.toUri().toURL());
-        final ChannelManifest manifestTwo = ChannelManifestMapper.from(this.manifestTwo.toUri().toURL());
+        final List<ChannelManifest> manifests = new ArrayList<>();
+        for (Path manifest : this.manifests) {
+            manifests.add(ManifestParseCache.getInstance().from(manifest));
+        }
 
-        final ChannelManifest mergedManifest = merge(manifestOne, manifestTwo, mergeStrategy, mergedManifestName, mergedManifestId);
+        final ChannelManifest mergedManifest = merge(manifests, mergeStrategy, mergedManifestName, mergedManifestId);
 
         System.out.println(ChannelManifestMapper.toYaml(mergedManifest));
 
@@ -54,43 +55,55 @@ public class ManifestMergeCommand implements Callable<Integer> {
                                         String mergedManifestName, String mergedManifestId) {
         Objects.requireNonNull(manifestOne);
         Objects.requireNonNull(manifestTwo);
-        Objects.requireNonNull(mergeStrategy);
 
-        final Collection<Stream> streamsOne = manifestOne.getStreams();
-        final Collection<Stream> streamsTwo = manifestTwo.getStreams();
+        return merge(List.of(manifestOne, manifestTwo), mergeStrategy, mergedManifestName, mergedManifestId);
+    }
 
-        final Map<String, Stream> presentKeys = streamsOne.stream().collect(Collectors.toMap(s -> s.getGroupId() + ":" + s.getArtifactId(), s->s));
+    /**
+     * Merges streams from all the {@code manifests} in a single pass.
+     *
+     * The result is the same as merging the manifests pairwise from left to right - streams of each manifest are merged
+     * into the streams accumulated from the previous manifests using the {@code mergeStrategy}.
+     */
+    public static ChannelManifest merge(List<ChannelManifest> manifests,
+                                        VersionMergeStrategy mergeStrategy,
+                                        String mergedManifestName, String mergedManifestId) {
+        Objects.requireNonNull(manifests);
+        Objects.requireNonNull(mergeStrategy);
+        if (manifests.isEmpty()) {
+            throw new IllegalArgumentException("At least one manifest is required.");
+        }
 
-        Set<Stream> merged = new TreeSet<>(streamsOne);
-        for (Stream s : streamsTwo) {
-            final String key = s.getGroupId() + ":" + s.getArtifactId();
-            final String versionOne;
-            final String versionTwo = s.getVersion();
-            if (!presentKeys.containsKey(key)) {
-                versionOne = null;
-            } else {
-                versionOne = presentKeys.get(key).getVersion();
-            }
+        // groupId -> artifactId -> merged stream
+        final Map<String, Map<String, Stream>> merged = new HashMap<>();
+        for (Stream s : manifests.get(0).getStreams()) {
+            merged.computeIfAbsent(s.getGroupId(), g -> new HashMap<>()).putIfAbsent(s.getArtifactId(), s);
+        }
 
-            final String version = mergeStrategy.merge(versionOne, versionTwo);
-            final Stream streamOne = presentKeys.get(key);
-            if (version == null) {
-                if (streamOne != null) {
-                    merged.remove(streamOne);
-                }
-            } else if (!version.equals(versionOne)) {
-                if (streamOne != null) {
-                    merged.remove(presentKeys.get(key));
+        for (ChannelManifest manifest : manifests.subList(1, manifests.size())) {
+            Objects.requireNonNull(manifest);
+            for (Stream s : manifest.getStreams()) {
+                final Map<String, Stream> artifacts = merged.computeIfAbsent(s.getGroupId(), g -> new HashMap<>());
+                final Stream streamOne = artifacts.get(s.getArtifactId());
+                final String versionOne = streamOne == null ? null : streamOne.getVersion();
+
+                final String version = mergeStrategy.merge(versionOne, s.getVersion());
+                if (version == null) {
+                    artifacts.remove(s.getArtifactId());
+                } else if (!version.equals(versionOne)) {
+                    artifacts.put(s.getArtifactId(), s);
                 }
-                merged.add(s);
             }
         }
 
-        final Optional<String> schemaVersion = ManifestUtils.getLatestSchemaVersion(manifestOne, manifestTwo);
+        final Set<Stream> streams = new TreeSet<>();
+        merged.values().forEach(artifacts -> streams.addAll(artifacts.values()));
+
+        final Optional<String> schemaVersion = ManifestUtils.getLatestSchemaVersion(manifests);
         final ChannelManifest.Builder builder = new ChannelManifest.Builder()
                 .setSchemaVersion(schemaVersion.orElse(ChannelManifestMapper.CURRENT_SCHEMA_VERSION))
                 .setName(mergedManifestName)
-                .addStreams(merged.toArray(new Stream[]{}))
+                .addStreams(streams.toArray(new Stream[]{}))
                 .setId(mergedManifestId);
 
         return builder.build();
@@ -0,0 +1,170 @@
+package org.wildfly.prospero.extras.manifest.merge3;
+
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.ReturnCodes;
+import org.wildfly.prospero.extras.manifest.ManifestIndex;
+import org.wildfly.prospero.extras.manifest.ManifestParseCache;
+import org.wildfly.prospero.extras.manifest.ManifestUtils;
+import org.wildfly.prospero.extras.manifest.merge.VersionMergeStrategy;
+import org.wildfly.prospero.extras.shared.CommandWithHelp;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+@CommandLine.Command(name = "manifest-merge3")
+public class ManifestMerge3Command extends CommandWithHelp {
+
+    @CommandLine.Parameters(index = "0", descriptionKey = "base")
+    Path base;
+
+    @CommandLine.Parameters(index = "1", descriptionKey = "ours")
+    Path ours;
+
+    @CommandLine.Parameters(index = "2", descriptionKey = "theirs")
+    Path theirs;
+
+    @CommandLine.Option(names = {"--mode"}, defaultValue = "LATEST")
+    VersionMergeStrategy.Strategies mergeStrategy;
+
+    @CommandLine.Option(names = {"--name"}, defaultValue = "merged-manifest")
+    String mergedManifestName;
+
+    @CommandLine.Option(names = {"--id"})
+    String mergedManifestId;
+
+    @CommandLine.Option(names = {"--fail-on-conflict"})
+    boolean failOnConflict;
+
+    @Override
+    public Integer call() throws Exception {
+        final ChannelManifest base = ManifestParseCache.getInstance().from(this.base);
+        final ChannelManifest ours = ManifestParseCache.getInstance().from(this.ours);
+        final ChannelManifest theirs = ManifestParseCache.getInstance().from(this.theirs);
+
+        final Merge3Result result = merge3(base, ours, theirs, mergeStrategy, mergedManifestName, mergedManifestId);
+
+        System.out.println(ChannelManifestMapper.toYaml(result.getManifest()));
+
+        if (result.hasConflicts()) {
+            System.err.printf("Found %d conflicting changes, resolved using the %s strategy:%n",
+                    result.getConflicts().size(), mergeStrategy);
+            result.getConflicts().forEach(c -> System.err.println("  " + c));
+            if (failOnConflict) {
+                return ReturnCodes.ERROR;
+            }
+        }
+        return ReturnCodes.SUCCESS;
+    }
+
+    /**
+     * Merges changes made in {@code ours} and {@code theirs} manifests since their common ancestor {@code base}.
+     *
+     * A stream changed in only one of the manifests takes that change, including removing the stream. If both
+     * manifests changed the stream differently, the change is a conflict:
+     * <ul>
+     *     <li>if the stream is present in both manifests, the version is chosen by {@code mergeStrategy},
+     *     {@code ours} being the first version</li>
+     *     <li>if one of the manifests removed the stream, the stream from the other manifest is kept</li>
+     * </ul>
+     *
+     * @param base - common ancestor of the merged manifests
+     * @param ours - first changed manifest
+     * @param theirs - second changed manifest
+     * @param mergeStrategy - strategy used to resolve conflicting versions
+     * @param mergedManifestName - optional name of the generated manifest
+     * @param mergedManifestId - optional id of the generated manifest
+     * @return - merged manifest and the list of conflicts
+     */
+    public static Merge3Result merge3(ChannelManifest base, ChannelManifest ours, ChannelManifest theirs,
+                                      VersionMergeStrategy mergeStrategy,
+                                      String mergedManifestName, String mergedManifestId) {
+        Objects.requireNonNull(base);
+        Objects.requireNonNull(ours);
+        Objects.requireNonNull(theirs);
+        Objects.requireNonNull(mergeStrategy);
+
+        final ManifestIndex baseIndex = ManifestIndex.of(base);
+        final ManifestIndex oursIndex = ManifestIndex.of(ours);
+        final ManifestIndex theirsIndex = ManifestIndex.of(theirs);
+
+        final Set<Stream> streams = new TreeSet<>();
+        final List<Merge3Result.Conflict> conflicts = new ArrayList<>();
+
+        // streams removed in both manifests are not in either of them, so it's enough to visit streams of ours and theirs
+        for (Stream s : ours.getStreams()) {
+            if (oursIndex.get(s.getGroupId(), s.getArtifactId()) == s) {
+                merge(s.getGroupId(), s.getArtifactId(), baseIndex, oursIndex, theirsIndex, mergeStrategy, streams, conflicts);
+            }
+        }
+        for (Stream s : theirs.getStreams()) {
+            if (!oursIndex.contains(s.getGroupId(), s.getArtifactId()) && theirsIndex.get(s.getGroupId(), s.getArtifactId()) == s) {
+                merge(s.getGroupId(), s.getArtifactId(), baseIndex, oursIndex, theirsIndex, mergeStrategy, streams, conflicts);
+            }
+        }
+
+        conflicts.sort(Comparator.comparing(Merge3Result.Conflict::getGroupId)
+                .thenComparing(Merge3Result.Conflict::getArtifactId));
+
+        final ChannelManifest merged = new ChannelManifest.Builder()
+                .setSchemaVersion(ManifestUtils.getLatestSchemaVersion(List.of(base, ours, theirs))
+                        .orElse(ChannelManifestMapper.CURRENT_SCHEMA_VERSION))
+                .setName(mergedManifestName)
+                .addStreams(streams.toArray(new Stream[]{}))
+                .setId(mergedManifestId)
+                .build();
+        return new Merge3Result(merged, conflicts);
+    }
+
+    private static void merge(String groupId, String artifactId,
+                              ManifestIndex baseIndex, ManifestIndex oursIndex, ManifestIndex theirsIndex,
+                              VersionMergeStrategy mergeStrategy,
+                              Set<Stream> streams, List<Merge3Result.Conflict> conflicts) {
+        final Stream base = baseIndex.get(groupId, artifactId);
+        final Stream ours = oursIndex.get(groupId, artifactId);
+        final Stream theirs = theirsIndex.get(groupId, artifactId);
+
+        final Stream result;
+        if (isSame(ours, theirs) || isSame(base, theirs)) {
+            result = ours;
+        } else if (isSame(base, ours)) {
+            result = theirs;
+        } else {
+            if (ours != null && theirs != null) {
+                final String version = mergeStrategy.merge(ours.getVersion(), theirs.getVersion());
+                result = version != null && version.equals(theirs.getVersion()) && !version.equals(ours.getVersion())
+                        ? theirs : ours;
+            } else {
+                // one of the manifests removed the stream, the other changed it - keep the changed stream
+                result = ours != null ? ours : theirs;
+            }
+            conflicts.add(new Merge3Result.Conflict(groupId, artifactId,
+                    getVersion(base), getVersion(ours), getVersion(theirs), getVersion(result)));
+        }
+
+        if (result != null) {
+            streams.add(result);
+        }
+    }
+
+    private static boolean isSame(Stream s1, Stream s2) {
+        if (s1 == null || s2 == null) {
+            return s1 == s2;
+        }
+        return Objects.equals(getVersion(s1), getVersion(s2));
+    }
+
+    private static String getVersion(Stream stream) {
+        if (stream == null) {
+            return null;
+        }
+        return stream.getVersion() == null ? stream.getVersionPattern().toString() : stream.getVersion();
+    }
+}
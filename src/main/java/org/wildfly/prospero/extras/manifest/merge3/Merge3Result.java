@@ -0,0 +1,91 @@
+package org.wildfly.prospero.extras.manifest.merge3;
+
+import org.wildfly.channel.ChannelManifest;
+
+import java.util.List;
+
+/**
+ * Result of a three-way merge of manifests - the merged manifest and the streams that were changed in conflicting ways.
+ */
+public class Merge3Result {
+
+    private final ChannelManifest manifest;
+    private final List<Conflict> conflicts;
+
+    Merge3Result(ChannelManifest manifest, List<Conflict> conflicts) {
+        this.manifest = manifest;
+        this.conflicts = conflicts;
+    }
+
+    public ChannelManifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * @return - conflicting changes ordered by {@code groupId:artifactId}
+     */
+    public List<Conflict> getConflicts() {
+        return conflicts;
+    }
+
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+    /**
+     * A stream changed differently in both manifests. The versions are {@code null} if the stream is not present in the
+     * manifest.
+     */
+    public static class Conflict {
+        private final String groupId;
+        private final String artifactId;
+        private final String baseVersion;
+        private final String oursVersion;
+        private final String theirsVersion;
+        private final String resolvedVersion;
+
+        Conflict(String groupId, String artifactId, String baseVersion, String oursVersion, String theirsVersion,
+                 String resolvedVersion) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.baseVersion = baseVersion;
+            this.oursVersion = oursVersion;
+            this.theirsVersion = theirsVersion;
+            this.resolvedVersion = resolvedVersion;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getBaseVersion() {
+            return baseVersion;
+        }
+
+        public String getOursVersion() {
+            return oursVersion;
+        }
+
+        public String getTheirsVersion() {
+            return theirsVersion;
+        }
+
+        public String getResolvedVersion() {
+            return resolvedVersion;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s:%s - base: %s, ours: %s, theirs: %s, resolved: %s", groupId, artifactId,
+                    display(baseVersion), display(oursVersion), display(theirsVersion), display(resolvedVersion));
+        }
+
+        private static String display(String version) {
+            return version == null ? "<none>" : version;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.channel.Stream;
 import org.wildfly.prospero.extras.ReturnCodes;
+import org.wildfly.prospero.extras.manifest.ManifestIndex;
+import org.wildfly.prospero.extras.manifest.ManifestParseCache;
 import org.wildfly.prospero.extras.shared.CommandWithHelp;
 import picocli.CommandLine;
 
@@ -32,8 +34,8 @@ public class ManifestSubtractCommand extends CommandWithHelp {
 
     @Override
     public Integer call() throws Exception {
-        final ChannelManifest manifestOne = ChannelManifestMapper.from(this.manifestOne.toUri().toURL());
-        final ChannelManifest manifestTwo = ChannelManifestMapper.from(this.manifestTwo.toUri().toURL());
+        final ChannelManifest manifestOne = ManifestParseCache.getInstance().from(this.manifestOne);
+        final ChannelManifest manifestTwo = ManifestParseCache.getInstance().from(this.manifestTwo);
 
         final ChannelManifest res = subtract(manifestOne, manifestTwo, exclusions);
 
@@ -65,15 +67,13 @@ public class ManifestSubtractCommand extends CommandWithHelp {
                 .filter(e -> !e.endsWith(":*"))
                 .collect(Collectors.toSet());
 
-        final Set<String> streamKeys = manifestTwo.getStreams().stream()
-                .filter(s -> !groupExclusions.contains(s.getGroupId()))
-                .filter(s -> !groupArtifactExclusions.contains(s.getGroupId() + ":" + s.getArtifactId()))
-                .map(s -> getKey(s))
-                .collect(Collectors.toSet());
-
+        final ManifestIndex streamsTwo = ManifestIndex.of(manifestTwo);
 
+        // streams present in both manifests are removed unless they are excluded
         final List<Stream> filteredStreams = manifestOne.getStreams().stream()
-                .filter(s -> !streamKeys.contains(getKey(s)))
+                .filter(s -> !streamsTwo.contains(s.getGroupId(), s.getArtifactId())
+                        || groupExclusions.contains(s.getGroupId())
+                        || groupArtifactExclusions.contains(getKey(s)))
                 .collect(Collectors.toList());
 
 
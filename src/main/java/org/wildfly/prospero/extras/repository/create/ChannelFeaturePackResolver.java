@@ -1,13 +1,15 @@
 package org.wildfly.prospero.extras.repository.create;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.util.EntityUtils;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.jboss.logging.Logger;
 import org.wildfly.channel.Stream;
@@ -17,44 +19,115 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 class ChannelFeaturePackResolver {
     private static final Logger LOG = Logger.getLogger(DownloadRepositoryCommand.class);
     private static AtomicInteger counter = new AtomicInteger(0);
     protected static final int DETECTION_PARALLERLISM = Integer.getInteger("wildfly.prospero.fp.detect_threads", 20);
+    // with virtual threads, the number of concurrent requests is limited only per repository
+    private static final int MAX_REQUESTS_PER_REPOSITORY = Integer.getInteger("wildfly.prospero.fp.max_requests_per_repo", 200);
+    private static final int DETECTION_RETRIES = Integer.getInteger("wildfly.prospero.fp.detect_retries", 2);
+    private static final long STATS_INTERVAL = 5;
+
+    private final boolean virtualThreads;
+    private final int requestsPerRepository;
+    private final Map<String, Semaphore> repositoryPermits = new ConcurrentHashMap<>();
+
+    ChannelFeaturePackResolver() {
+        this(TaskExecutors.VIRTUAL_THREADS_DEFAULT);
+    }
+
+    /**
+     * @param virtualThreads - if {@code true}, each stream is checked in its own virtual thread (if supported by the JVM)
+     */
+    ChannelFeaturePackResolver(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        this.requestsPerRepository = virtualThreads && TaskExecutors.isVirtualThreadsSupported()
+                ? MAX_REQUESTS_PER_REPOSITORY : DETECTION_PARALLERLISM;
+    }
+
+    /**
+     * Receives feature packs as soon as they are confirmed.
+     */
+    interface FeaturePackListener {
+        void featurePackFound(String featurePackGA);
+    }
 
     List<String> findFeaturePacks(Collection<Stream> streams, List<RemoteRepository> repositories) throws IOException {
-        final Set<String> featurePacks = new HashSet<>();
+        return findFeaturePacks(streams, repositories, fp -> {});
+    }
+
+    /**
+     * Checks which of the {@code streams} are feature packs.
+     *
+     * @param listener - notified about each feature pack as soon as it is confirmed. Always called on the calling thread.
+     * @return - {@code groupId:artifactId} of found feature packs, in the order they were found
+     * @throws IOException - if some of the streams could not be checked, e.g. because a repository was unreachable.
+     * All the other streams are checked first.
+     */
+    List<String> findFeaturePacks(Collection<Stream> streams, List<RemoteRepository> repositories,
+                                  FeaturePackListener listener) throws IOException {
+        final Set<String> featurePacks = new LinkedHashSet<>();
+        // streams that could not be checked even after retries
+        final Set<String> unchecked = ConcurrentHashMap.newKeySet();
+        final FeaturePackDetectionCache cache = FeaturePackDetectionCache.load();
+
+        // local repositories are scanned upfront, so that the tasks only need to look up the results
+        final Map<String, LocalFeaturePackIndex> localIndexes = new HashMap<>();
+        for (RemoteRepository repo : repositories) {
+            if (repo.getUrl().startsWith("file")) {
+                final LocalFeaturePackIndex index = LocalFeaturePackIndex.scan(repo.getUrl());
+                if (index != null) {
+                    localIndexes.put(repo.getUrl(), index);
+                }
+            }
+        }
 
         ExecutorService executorService = null;
 
-        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
-            executorService = Executors.newWorkStealingPool(DETECTION_PARALLERLISM);
+        try (PooledHttpClient httpClient = new PooledHttpClient(requestsPerRepository)) {
+            executorService = TaskExecutors.newExecutor(virtualThreads, () -> Executors.newWorkStealingPool(DETECTION_PARALLERLISM));
+            final CompletionService<String> completionService = new ExecutorCompletionService<>(executorService);
 
-            final List<CompletableFuture<String>> allTasks = new ArrayList<>();
             for (Stream s : streams) {
-                final CompletableFuture<String> cf = new CompletableFuture<>();
-                executorService.submit(new UrlCheck(repositories, client, s, cf));
-                allTasks.add(cf);
+                completionService.submit(new UrlCheck(repositories, httpClient.getClient(), cache, localIndexes, unchecked, s));
             }
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Waiting to finish " + allTasks.size() + " tasks");
+                LOG.debug("Waiting to finish " + streams.size() + " tasks");
             }
 
-            CompletableFuture.allOf(allTasks.toArray(new CompletableFuture[]{})).join();
-            for (CompletableFuture<String> task : allTasks) {
+            int remaining = streams.size();
+            while (remaining > 0) {
+                final Future<String> task = completionService.poll(STATS_INTERVAL, TimeUnit.SECONDS);
+                if (task == null) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(remaining + " tasks remaining. HTTP connection pool: " + httpClient.getStats());
+                    }
+                    continue;
+                }
+                remaining--;
+
                 final String value = task.get();
-                if (value != null) {
-                    featurePacks.add(value);
+                if (value != null && featurePacks.add(value)) {
+                    listener.featurePackFound(value);
                 }
             }
 
@@ -71,11 +144,29 @@ class ChannelFeaturePackResolver {
                 System.out.println("Shutting down the executor");
                 executorService.shutdownNow();
             }
+            cache.save();
+        }
+
+        if (!unchecked.isEmpty()) {
+            final List<String> sorted = new ArrayList<>(unchecked);
+            Collections.sort(sorted);
+            System.err.println("Unable to check if following streams are feature packs:");
+            sorted.forEach(ga -> System.err.println("  " + ga));
+            throw new IOException("Unable to check " + sorted.size() + " of " + streams.size() + " streams for feature packs");
         }
         return new ArrayList<>(featurePacks);
     }
 
-    private String getExistingZipUrl(CloseableHttpClient client, String baseUrl, Stream s) {
+    private Semaphore permitsFor(String repositoryUrl) {
+        return repositoryPermits.computeIfAbsent(repositoryUrl, url -> new Semaphore(requestsPerRepository));
+    }
+
+    /**
+     * @return - URL of the stream's zip, or {@code null} if the repository doesn't have it
+     * @throws IOException - if the repository responded with anything other than the zip or {@code 404 Not Found},
+     * e.g. because of an authentication failure or an outage, so that the result is not known
+     */
+    private String getExistingZipUrl(CloseableHttpClient client, String baseUrl, Stream s) throws IOException {
         final String url = baseUrl + "/" + s.getGroupId().replaceAll("\\.", "/") + "/" +
                 s.getArtifactId() + "/" + s.getVersion() + "/" + s.getArtifactId() + "-" + s.getVersion() + ".zip";
         if (LOG.isDebugEnabled()) {
@@ -83,89 +174,252 @@ class ChannelFeaturePackResolver {
         }
         final HttpHead httpHead = new HttpHead(url);
         try (CloseableHttpResponse res = client.execute(httpHead)) {
-            if (res.getStatusLine().getStatusCode() == 200) {
+            final int statusCode = res.getStatusLine().getStatusCode();
+            if (statusCode == HttpStatus.SC_OK) {
                 return url;
+            } else if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                return null;
+            }
+            throw new IOException("Unexpected response from " + url + ": " + res.getStatusLine());
+        }
+    }
+
+    /**
+     * Checks if the zip at {@code zipUrl} contains a {@code feature-pack.xml}. Only the central directory of the zip is
+     * fetched using HTTP range requests. If the server doesn't support them, the whole zip is downloaded instead.
+     */
+    private boolean isFeaturePack(CloseableHttpClient client, String zipUrl) throws IOException {
+        final HttpGet tailRequest = new HttpGet(zipUrl);
+        tailRequest.setHeader(HttpHeaders.RANGE, "bytes=-" + ZipCentralDirectory.MAX_TAIL_SIZE);
+        final byte[] tail;
+        final long zipSize;
+        try (CloseableHttpResponse res = client.execute(tailRequest)) {
+            if (res.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Range requests not supported for " + zipUrl + ". Downloading the whole zip.");
+                }
+                return isFeaturePack(res.getEntity());
+            }
+            zipSize = getTotalSize(res);
+            tail = zipSize < 0 ? null : EntityUtils.toByteArray(res.getEntity());
+        }
+        // release the connection before falling back to the download
+        if (tail == null) {
+            return downloadAndCheck(client, zipUrl);
+        }
+
+        final ZipCentralDirectory centralDirectory;
+        try {
+            centralDirectory = ZipCentralDirectory.locate(tail);
+            final long tailStart = zipSize - tail.length;
+            if (centralDirectory.getOffset() >= tailStart) {
+                return isFeaturePack(centralDirectory.entryNames(tail, (int) (centralDirectory.getOffset() - tailStart)));
             }
         } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Unable to read central directory of " + zipUrl + ". Downloading the whole zip.", e);
+            }
+            return downloadAndCheck(client, zipUrl);
+        }
+
+        // the central directory is larger than the tail we've got
+        final HttpGet directoryRequest = new HttpGet(zipUrl);
+        directoryRequest.setHeader(HttpHeaders.RANGE, "bytes=" + centralDirectory.getOffset() + "-"
+                + (centralDirectory.getOffset() + centralDirectory.getSize() - 1));
+        final byte[] directory;
+        try (CloseableHttpResponse res = client.execute(directoryRequest)) {
+            directory = getTotalSize(res) < 0 ? null : EntityUtils.toByteArray(res.getEntity());
+        }
+        if (directory == null) {
+            return downloadAndCheck(client, zipUrl);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Fetched " + (tail.length + directory.length) + " of " + zipSize + " bytes of " + zipUrl);
+        }
+        try {
+            return isFeaturePack(centralDirectory.entryNames(directory, 0));
+        } catch (IOException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Unable to read central directory of " + zipUrl + ". Downloading the whole zip.", e);
+            }
+            return downloadAndCheck(client, zipUrl);
         }
-        return null;
     }
 
-    private Path downloadZip(String zipUrl) throws IOException {
-        Path tempFile = Files.createTempFile("candidate", "zip");
+    private static boolean isFeaturePack(List<String> entryNames) {
+        return entryNames.contains("feature-pack.xml");
+    }
 
-        try (CloseableHttpClient client = HttpClients.custom()
-                .setRedirectStrategy(new LaxRedirectStrategy())
-                .build()) {
-            final HttpGet get = new HttpGet(zipUrl);
-            client.execute(get, httpResponse -> {
-                FileUtils.copyInputStreamToFile(httpResponse.getEntity().getContent(), tempFile.toFile());
-                return tempFile.toFile();
-            });
+    /**
+     * @return - total size of the resource if the response contains partial content, -1 otherwise
+     */
+    private static long getTotalSize(CloseableHttpResponse res) {
+        final Header contentRange = res.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        if (res.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT || contentRange == null) {
+            return -1;
+        }
+        // bytes <first>-<last>/<total>
+        final String value = contentRange.getValue();
+        final int separator = value.lastIndexOf('/');
+        try {
+            return separator < 0 ? -1 : Long.parseLong(value.substring(separator + 1).trim());
+        } catch (NumberFormatException e) {
+            // the total size is unknown ("*")
+            return -1;
         }
+    }
+
+    private static boolean isFeaturePack(HttpEntity zipEntity) throws IOException {
+        final Path tempFile = Files.createTempFile("candidate", "zip");
+        try {
+            FileUtils.copyInputStreamToFile(zipEntity.getContent(), tempFile.toFile());
+            return FeaturePackUtils.isFeaturePack(tempFile);
+        } finally {
+            try {
+                Files.delete(tempFile);
+            } catch (IOException e) {
+                LOG.error("Unable to remove temporary download: " + tempFile, e);
+            }
+        }
+    }
+
+    private boolean downloadAndCheck(CloseableHttpClient client, String zipUrl) throws IOException {
+        Path tempFile = null;
+        try {
+            tempFile = downloadZip(client, zipUrl);
+            return FeaturePackUtils.isFeaturePack(tempFile);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.delete(tempFile);
+                } catch (IOException e) {
+                    LOG.error("Unable to remove temporary download: " + tempFile, e);
+                }
+            }
+        }
+    }
+
+    private Path downloadZip(CloseableHttpClient client, String zipUrl) throws IOException {
+        Path tempFile = Files.createTempFile("candidate", "zip");
+
+        final HttpGet get = new HttpGet(zipUrl);
+        client.execute(get, httpResponse -> {
+            FileUtils.copyInputStreamToFile(httpResponse.getEntity().getContent(), tempFile.toFile());
+            return tempFile.toFile();
+        });
 
         return tempFile;
     }
 
-    private class UrlCheck implements Runnable {
+    private class UrlCheck implements Callable<String> {
 
         private final List<RemoteRepository> repositories;
         private final CloseableHttpClient client;
+        private final FeaturePackDetectionCache cache;
+        private final Map<String, LocalFeaturePackIndex> localIndexes;
+        private final Set<String> unchecked;
         private final Stream stream;
-        private final CompletableFuture<String> cf;
 
-        UrlCheck(List<RemoteRepository> repositories, CloseableHttpClient client, Stream stream, CompletableFuture<String> cf) {
+        UrlCheck(List<RemoteRepository> repositories, CloseableHttpClient client, FeaturePackDetectionCache cache,
+                 Map<String, LocalFeaturePackIndex> localIndexes, Set<String> unchecked, Stream stream) {
             this.repositories = repositories;
             this.client = client;
+            this.cache = cache;
+            this.localIndexes = localIndexes;
+            this.unchecked = unchecked;
             this.stream = stream;
-            this.cf = cf;
         }
 
+        /**
+         * @return - {@code groupId:artifactId} of the stream if it is a feature pack, {@code null} otherwise. A stream
+         * that cannot be checked is added to {@code unchecked} instead of failing, so that the other checks can finish.
+         */
         @Override
-        public void run() {
+        public String call() throws InterruptedException {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return check();
+                } catch (IOException | RuntimeException e) {
+                    if (attempt > DETECTION_RETRIES) {
+                        System.err.println("Unable to check if " + stream.getGroupId() + ":" + stream.getArtifactId()
+                                + " is a feature pack: " + e);
+                        unchecked.add(stream.getGroupId() + ":" + stream.getArtifactId());
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("Detection of " + stream + " failed", e);
+                        }
+                        return null;
+                    }
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Detection of " + stream + " failed, retrying (attempt " + attempt + ")", e);
+                    }
+                }
+            }
+        }
+
+        private String check() throws IOException, InterruptedException {
             String zipUrl = null;
-            String fpGa = null;
+            String zipRepositoryUrl = null;
+            final String streamGa = stream.getGroupId() + ":" + stream.getArtifactId();
 
             for (RemoteRepository repo : repositories) {
                 if (repo.getUrl().startsWith("file")) {
-                    // TODO: support file
+                    final LocalFeaturePackIndex index = localIndexes.get(repo.getUrl());
+                    if (index != null && index.containsZip(stream)) {
+                        if (index.isFeaturePack(stream)) {
+                            LOG.debug("Found feature pack " + stream + " in " + repo.getUrl());
+                            return streamGa;
+                        }
+                        return null;
+                    }
                     continue;
                 }
                 final String baseUrl = repo.getUrl();
-                zipUrl = getExistingZipUrl(client, baseUrl, stream);
+                final FeaturePackDetectionCache.Result cached = cache.get(stream, baseUrl);
+                if (cached == FeaturePackDetectionCache.Result.MISSING) {
+                    continue;
+                } else if (cached != null) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Using cached detection result for " + stream + ": " + cached);
+                    }
+                    return cached == FeaturePackDetectionCache.Result.FEATURE_PACK ? streamGa : null;
+                }
+                final Semaphore permits = permitsFor(baseUrl);
+                permits.acquire();
+                try {
+                    zipUrl = getExistingZipUrl(client, baseUrl, stream);
+                } finally {
+                    permits.release();
+                }
                 if (zipUrl != null) {
+                    zipRepositoryUrl = baseUrl;
                     break;
+                } else {
+                    // only a 404 gets here, other responses fail the check
+                    cache.put(stream, baseUrl, FeaturePackDetectionCache.Result.MISSING);
                 }
             }
 
-            if (zipUrl != null) {
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Found possible zip: " + zipUrl + ". Downloading to verify.");
-                }
-                // download zip
-                Path tempFile = null;
-                try {
-                    tempFile = downloadZip(zipUrl);
-                    if (FeaturePackUtils.isFeaturePack(tempFile)) {
-                        LOG.debug("Found feature pack " + stream);
-                        fpGa = stream.getGroupId() + ":" + stream.getArtifactId();
-                    }
-                } catch (IOException e) {
-                    LOG.warn("Unable to process a zip file: " + zipUrl + " Ignoring the file", e);
-                    cf.completeExceptionally(e);
-                } finally {
-                    if (tempFile != null) {
-                        try {
-                            Files.delete(tempFile);
-                        } catch (IOException e) {
-                            LOG.error("Unable to remove temporary download: " + tempFile, e);
-                        }
-                    }
+            if (zipUrl == null) {
+                return null;
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Found possible zip: " + zipUrl + ". Reading its content to verify.");
+            }
+            final Semaphore permits = permitsFor(zipRepositoryUrl);
+            permits.acquire();
+            try {
+                if (isFeaturePack(client, zipUrl)) {
+                    LOG.debug("Found feature pack " + stream);
+                    cache.put(stream, zipRepositoryUrl, FeaturePackDetectionCache.Result.FEATURE_PACK);
+                    return streamGa;
+                } else {
+                    cache.put(stream, zipRepositoryUrl, FeaturePackDetectionCache.Result.NOT_FEATURE_PACK);
+                    return null;
                 }
+            } finally {
+                permits.release();
             }
-            cf.complete(fpGa);
         }
     }
 }
@@ -26,6 +26,27 @@ public class DownloadArtifactListCommand extends CommandWithHelp {
     @CommandLine.Option(names={"--repositories"}, required = true, split = ",")
     private List<String> repositoriesArg;
 
+    @CommandLine.Option(names={"--threads"})
+    private int threads = MavenDownloader.DEFAULT_THREADS;
+
+    @CommandLine.Option(names={"--max-connections-per-repo"})
+    private int maxConnectionsPerRepository = MavenDownloader.DEFAULT_CONNECTIONS_PER_REPOSITORY;
+
+    @CommandLine.Option(names={"--stream"})
+    private boolean streamingDeploy = false;
+
+    @CommandLine.Option(names={"--link-mode"})
+    private LinkMode linkMode;
+
+    @CommandLine.Option(names={"--incremental"})
+    private boolean incremental = false;
+
+    @CommandLine.Option(names={"--prune"})
+    private boolean prune = false;
+
+    @CommandLine.Option(names={"--virtual-threads"})
+    private boolean virtualThreads = TaskExecutors.VIRTUAL_THREADS_DEFAULT;
+
     @Override
     public Integer call() throws Exception {
         final List<String> gavLines = Files.readAllLines(artifactList);
@@ -74,8 +95,20 @@ public class DownloadArtifactListCommand extends CommandWithHelp {
                 })
                 .collect(Collectors.toList());
 
-        new MavenDownloader(repositories)
-                .downloadAndDeploy(artifacts, repositoryPath, true, true);
+        final MavenDownloader downloader = new MavenDownloader(repositories, threads, maxConnectionsPerRepository);
+        downloader.setStreamingDeploy(streamingDeploy);
+        downloader.setLinkMode(linkMode);
+        downloader.setIncremental(incremental);
+        downloader.setVirtualThreads(virtualThreads);
+        downloader.downloadAndDeploy(artifacts, repositoryPath, true, true);
+
+        if (prune) {
+            final Set<String> gavsToKeep = artifacts.stream()
+                    .map(RepositoryIndex::gav)
+                    .collect(Collectors.toSet());
+            final int removed = RepositoryIndex.prune(repositoryPath, gavsToKeep);
+            System.out.printf("Removed %d artifact versions no longer in the artifact list%n", removed);
+        }
 
         return ReturnCodes.SUCCESS;
     }
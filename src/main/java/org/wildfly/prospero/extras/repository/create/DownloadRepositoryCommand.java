@@ -1,10 +1,6 @@
 package org.wildfly.prospero.extras.repository.create;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.maven.model.Model;
-import org.apache.maven.model.Parent;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
-import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.repository.RemoteRepository;
@@ -17,27 +13,33 @@ import org.wildfly.channel.ChannelMapper;
 import org.wildfly.channel.Stream;
 import org.wildfly.prospero.extras.ChannelOperations;
 import org.wildfly.prospero.extras.ReturnCodes;
+import org.wildfly.prospero.extras.manifest.ManifestIndex;
 import org.wildfly.prospero.extras.shared.CommandWithHelp;
 import picocli.CommandLine;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileVisitResult;
-import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Stack;
 import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static org.wildfly.prospero.extras.ChannelOperations.getChannelManifest;
@@ -70,7 +72,27 @@ public class DownloadRepositoryCommand extends CommandWithHelp {
 
     @CommandLine.Option(names={"--with-fallback"})
     private boolean withFallback = false;
-    private final ChannelFeaturePackResolver channelFeaturePackResolver = new ChannelFeaturePackResolver();
+
+    @CommandLine.Option(names={"--threads"})
+    private int threads = MavenDownloader.DEFAULT_THREADS;
+
+    @CommandLine.Option(names={"--max-connections-per-repo"})
+    private int maxConnectionsPerRepository = MavenDownloader.DEFAULT_CONNECTIONS_PER_REPOSITORY;
+
+    @CommandLine.Option(names={"--stream"})
+    private boolean streamingDeploy = false;
+
+    @CommandLine.Option(names={"--link-mode"})
+    private LinkMode linkMode;
+
+    @CommandLine.Option(names={"--incremental"})
+    private boolean incremental = false;
+
+    @CommandLine.Option(names={"--prune"})
+    private boolean prune = false;
+
+    @CommandLine.Option(names={"--virtual-threads"})
+    private boolean virtualThreads = TaskExecutors.VIRTUAL_THREADS_DEFAULT;
 
     private Set<Artifact> artifactSet;
 
@@ -92,7 +114,11 @@ public class DownloadRepositoryCommand extends CommandWithHelp {
                 .map(r -> new RemoteRepository.Builder(r.getId(), "default", r.getUrl()).build())
                 .collect(Collectors.toList());
 
-        final MavenDownloader downloader = new MavenDownloader(repositories);
+        final MavenDownloader downloader = new MavenDownloader(repositories, threads, maxConnectionsPerRepository);
+        downloader.setStreamingDeploy(streamingDeploy);
+        downloader.setLinkMode(linkMode);
+        downloader.setIncremental(incremental);
+        downloader.setVirtualThreads(virtualThreads);
 
         artifactSet = new HashSet<>();
 
@@ -101,11 +127,13 @@ public class DownloadRepositoryCommand extends CommandWithHelp {
             artifactSet.add(manifestDownload.manifestArtifact);
         }
         ChannelManifest manifest = manifestDownload.manifest;
+        final ManifestIndex manifestIndex = ManifestIndex.of(manifest);
 
         // get GAVs of feature-packs;
         if (featurePacks.isEmpty()) {
             System.out.println("Detecting feature packs");
-            featurePacks.addAll(channelFeaturePackResolver.findFeaturePacks(manifest.getStreams(), repositories));
+            featurePacks.addAll(new ChannelFeaturePackResolver(virtualThreads).findFeaturePacks(manifest.getStreams(), repositories,
+                    fp -> System.out.println("  Found feature pack " + fp)));
             if (featurePacks.isEmpty()) {
                 throw new RuntimeException("Unable to find any feature packs in the channel.");
             }
@@ -118,15 +146,15 @@ public class DownloadRepositoryCommand extends CommandWithHelp {
             System.out.println("  * " + fp);
         }
 
-        artifactSet.addAll(detectArtifactsInFeaturePacks(manifest, downloader));
+        artifactSet.addAll(detectArtifactsInFeaturePacks(manifestIndex, downloader));
+
+        // groupId -> artifactIds of the resolved artifacts
+        final Map<String, Set<String>> downloaded = new HashMap<>();
+        artifactSet.forEach(a -> downloaded.computeIfAbsent(a.getGroupId(), g -> new HashSet<>()).add(a.getArtifactId()));
 
         if (withFallback) {
-            final Set<String> downloaded = artifactSet.stream()
-                    .map(a -> a.getGroupId() + ":" + a.getArtifactId())
-                .collect(Collectors.toSet());
             for (Stream stream : manifest.getStreams()) {
-                final String id = stream.getGroupId() + ":" + stream.getArtifactId();
-                if (!downloaded.contains(id)) {
+                if (downloaded.computeIfAbsent(stream.getGroupId(), g -> new HashSet<>()).add(stream.getArtifactId())) {
                     // we're gonna try to guess the classifier and packaging
                     artifactSet.add(new DefaultArtifact(stream.getGroupId(), stream.getArtifactId(), "jar", stream.getVersion()));
                 }
@@ -140,15 +168,10 @@ public class DownloadRepositoryCommand extends CommandWithHelp {
 
         downloader.downloadAndDeploy(artifactSet, repositoryPath, includeSources, includePoms);
 
-        final Set<String> downloaded = artifactSet.stream()
-                .map(a -> a.getGroupId() + ":" + a.getArtifactId())
-                .collect(Collectors.toSet());
-
         final Set<String> requested = manifest.getStreams().stream()
+                .filter(s -> !downloaded.getOrDefault(s.getGroupId(), Collections.emptySet()).contains(s.getArtifactId()))
                 .map(s -> s.getGroupId() + ":" + s.getArtifactId())
-                .collect(Collectors.toSet());
-
-        requested.removeAll(downloaded);
+                .collect(Collectors.toCollection(TreeSet::new));
 
         if (!requested.isEmpty()) {
 //            if (withFallback) {
@@ -164,86 +187,19 @@ public class DownloadRepositoryCommand extends CommandWithHelp {
         }
 
         // download parent poms
+        final Set<Artifact> pomArtifacts = new HashSet<>();
         if (includePoms) {
-            final Stack<Path> poms = new Stack<>();
-            final Set<Artifact> pomArtifacts = new HashSet<>();
-            Files.walkFileTree(repositoryPath, new FileVisitor<Path>() {
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    return FileVisitResult.CONTINUE;
-                }
-
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    if (!file.getFileName().toString().endsWith(".pom")) {
-                        return FileVisitResult.CONTINUE;
-                    }
-                    poms.push(file);
-                    return FileVisitResult.CONTINUE;
-                }
-
-                @Override
-                public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
-                    return FileVisitResult.CONTINUE;
-                }
-
-                @Override
-                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                    return FileVisitResult.CONTINUE;
-                }
-            });
-
-            while (!poms.isEmpty()) {
-                final Path file = poms.pop();
-                try {
-                    final Model model = new MavenXpp3Reader().read(new FileInputStream(file.toFile()));
-                    final Parent parentModel = model.getParent();
-                    if (parentModel != null) {
-                        final String groupId = parentModel.getGroupId();
-                        final String artifactId = parentModel.getArtifactId();
-                        final String version = parentModel.getVersion();
-
-                        System.out.printf("Resolving pom: %s:%s:%s%n", groupId, artifactId, version);
-                        final Path parent = downloader.download(groupId, artifactId, null, "pom", version).toPath();
-                        poms.push(parent);
-                        pomArtifacts.add(new DefaultArtifact(
-                                groupId,
-                                artifactId,
-                                null,
-                                "pom",
-                                version,
-                                null,
-                                parent.toFile()
-                        ));
-                    }
-
-//                    if (model.getDependencyManagement() != null) {
-//                        // TODO: resolve versions
-//                        for (Dependency dependency : model.getDependencyManagement().getDependencies()) {
-//                            if (dependency.getScope() != null && dependency.getScope().equals("import")) {
-//                                final String groupId = dependency.getGroupId();
-//                                final String artifactId = dependency.getArtifactId();
-//                                final String version = dependency.getVersion();
-//                                System.out.printf("Resolving pom: %s:%s:%s%n", groupId, artifactId, version);
-//                                final Path dep = downloader.download(groupId, artifactId, null, "pom", version).toPath();
-//                                poms.push(dep);
-//                                pomArtifacts.add(new DefaultArtifact(
-//                                        groupId,
-//                                        artifactId,
-//                                        null,
-//                                        "pom",
-//                                        version,
-//                                        null,
-//                                        dep.toFile()
-//                                ));
-//                            }
-//                        }
-//                    }
-
-                } catch (XmlPullParserException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+            // only the POMs of the current artifacts, the repository can contain older versions if updated incrementally
+            final List<Path> poms = artifactSet.stream()
+                    .map(a -> new DefaultArtifact(a.getGroupId(), a.getArtifactId(), "", "pom", a.getVersion()))
+                    .map(a -> repositoryPath.resolve(OutputRepositoryWriter.layoutPath(a)))
+                    .distinct()
+                    .filter(Files::exists)
+                    .collect(Collectors.toList());
+
+            pomArtifacts.addAll(new PomClosureResolver(
+                    (groupId, artifactId, version) -> downloader.download(groupId, artifactId, null, "pom", version),
+                    threads, virtualThreads).resolve(poms));
             downloader.downloadAndDeploy(pomArtifacts, repositoryPath, false, false);
 
             if (artifactList) {
@@ -262,57 +218,100 @@ public class DownloadRepositoryCommand extends CommandWithHelp {
             }
         }
 
+        if (prune) {
+            final Set<String> gavsToKeep = new HashSet<>();
+            artifactSet.forEach(a -> gavsToKeep.add(RepositoryIndex.gav(a)));
+            pomArtifacts.forEach(a -> gavsToKeep.add(RepositoryIndex.gav(a)));
+            final int removed = RepositoryIndex.prune(repositoryPath, gavsToKeep);
+            System.out.printf("Removed %d artifact versions no longer in the channel%n", removed);
+        }
+
         return ReturnCodes.SUCCESS;
     }
 
-    private Set<Artifact> detectArtifactsInFeaturePacks(ChannelManifest manifest, MavenDownloader downloader) throws ProvisioningException, ArtifactResolutionException, IOException {
-        final Set<Artifact> artifactSet = new HashSet<>();
+    private Set<Artifact> detectArtifactsInFeaturePacks(ManifestIndex manifest, MavenDownloader downloader) throws ProvisioningException, ArtifactResolutionException, IOException {
+        final Map<String, Stream> fpStreams = new LinkedHashMap<>();
         for (String featurePackGA : featurePacks) {
             final Optional<Stream> fpStream = manifest.findStreamFor(featurePackGA.split(":")[0], featurePackGA.split(":")[1]);
             if (fpStream.isEmpty()) {
                 throw new RuntimeException("The feature pack " + featurePackGA + " cannot be found in the channel.");
             }
+            fpStreams.put(featurePackGA, fpStream.get());
+        }
 
-            if (fpMapper == FpMapperValues.ZIP) {
-                final File zipFile = downloader.download(
-                        featurePackGA.split(":")[0],
-                        featurePackGA.split(":")[1],
-                        null,
-                        "zip",
-                        fpStream.get().getVersion()
-                );
-
-                artifactSet.addAll(FeaturePackUtils.getArtifactsFromFeaturePackZip(zipFile, manifest));
-                artifactSet.add(zipMavenArtifact(featurePackGA, fpStream));
-            } else {
-                final File artifactListFile = downloader.download(
-                        featurePackGA.split(":")[0],
-                        featurePackGA.split(":")[1],
-                        "artifact-list",
-                        "txt",
-                        fpStream.get().getVersion()
-                );
-
-                FileUtils.readLines(artifactListFile, StandardCharsets.UTF_8).stream()
-                        .map(l->l.split(",")[1])
-                        .map(CoordUtils::fromLocalPath)
-                        .map(a-> manifest.findStreamFor(a.getGroupId(), a.getArtifactId()).map(s->a.setVersion(s.getVersion())))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .forEach(artifactSet::add);
-                artifactSet.add(zipMavenArtifact(featurePackGA, fpStream));
+        // feature packs are downloaded and parsed concurrently, each adding its artifacts to the shared set
+        final Set<Artifact> artifactSet = ConcurrentHashMap.newKeySet();
+        final ExecutorService executorService = TaskExecutors.newExecutor(virtualThreads,
+                () -> Executors.newFixedThreadPool(Math.max(1, Math.min(threads, fpStreams.size()))));
+        final CompletionService<Void> completionService = new ExecutorCompletionService<>(executorService);
+        try {
+            for (Map.Entry<String, Stream> fp : fpStreams.entrySet()) {
+                completionService.submit(() -> {
+                    detectArtifactsInFeaturePack(fp.getKey(), fp.getValue(), manifest, downloader, artifactSet);
+                    return null;
+                });
+            }
+            for (int i = 0; i < fpStreams.size(); i++) {
+                completionService.take().get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ArtifactResolutionException) {
+                throw (ArtifactResolutionException) e.getCause();
+            } else if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
         }
         return artifactSet;
     }
 
-    private static DefaultArtifact zipMavenArtifact(String featurePackGA, Optional<Stream> fpStream) {
+    private void detectArtifactsInFeaturePack(String featurePackGA, Stream fpStream, ManifestIndex manifest,
+                                              MavenDownloader downloader, Set<Artifact> artifactSet) throws ArtifactResolutionException, IOException {
+        if (fpMapper == FpMapperValues.ZIP) {
+            final File zipFile = downloader.download(
+                    featurePackGA.split(":")[0],
+                    featurePackGA.split(":")[1],
+                    null,
+                    "zip",
+                    fpStream.getVersion()
+            );
+
+            artifactSet.addAll(FeaturePackUtils.getArtifactsFromFeaturePackZip(zipFile, manifest));
+            artifactSet.add(zipMavenArtifact(featurePackGA, fpStream));
+        } else {
+            final File artifactListFile = downloader.download(
+                    featurePackGA.split(":")[0],
+                    featurePackGA.split(":")[1],
+                    "artifact-list",
+                    "txt",
+                    fpStream.getVersion()
+            );
+
+            FileUtils.readLines(artifactListFile, StandardCharsets.UTF_8).stream()
+                    .map(l->l.split(",")[1])
+                    .map(CoordUtils::fromLocalPath)
+                    .map(a-> manifest.findStreamFor(a.getGroupId(), a.getArtifactId()).map(s->a.setVersion(s.getVersion())))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .forEach(artifactSet::add);
+            artifactSet.add(zipMavenArtifact(featurePackGA, fpStream));
+        }
+    }
+
+    private static DefaultArtifact zipMavenArtifact(String featurePackGA, Stream fpStream) {
         return new DefaultArtifact(
                 featurePackGA.split(":")[0],
                 featurePackGA.split(":")[1],
                 null,
                 "zip",
-                fpStream.get().getVersion()
+                fpStream.getVersion()
         );
     }
 }
@@ -0,0 +1,194 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.jboss.logging.Logger;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.shared.CacheDirectory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers results of feature pack detection between invocations.
+ *
+ * The results are stored per {@code groupId:artifactId:version} and repository URL. Released artifacts don't change,
+ * so the result of inspecting a zip is kept until the cache grows over {@code wildfly.prospero.fp.cache.max_entries}
+ * entries, when the oldest entries are dropped. Zips that were not found in a repository are re-checked after
+ * {@code wildfly.prospero.fp.cache.missing_ttl_hours}. Snapshot versions can change, so their results are never cached.
+ * Setting {@code wildfly.prospero.fp.cache} to {@code false} disables the cache.
+ */
+class FeaturePackDetectionCache {
+
+    private static final Logger LOG = Logger.getLogger(FeaturePackDetectionCache.class);
+    static final String CACHE_FILE = "feature-pack-detection.txt";
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("wildfly.prospero.fp.cache", "true"));
+    private static final int MAX_ENTRIES = Integer.getInteger("wildfly.prospero.fp.cache.max_entries", 100_000);
+    private static final long MISSING_TTL = TimeUnit.HOURS.toMillis(Integer.getInteger("wildfly.prospero.fp.cache.missing_ttl_hours", 24));
+
+    enum Result {
+        /** the zip is a feature pack */
+        FEATURE_PACK,
+        /** the zip exists, but is not a feature pack */
+        NOT_FEATURE_PACK,
+        /** there is no zip for the stream in the repository */
+        MISSING
+    }
+
+    private static final class Entry {
+        private final Result result;
+        private final long timestamp;
+
+        private Entry(Result result, long timestamp) {
+            this.result = result;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private final Path cacheFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> added = new ConcurrentHashMap<>();
+
+    private FeaturePackDetectionCache(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Loads the cache from the default location. If the cache is disabled, returns an instance that doesn't persist
+     * any results.
+     */
+    static FeaturePackDetectionCache load() {
+        return load(ENABLED ? CacheDirectory.resolve(CACHE_FILE) : null);
+    }
+
+    static FeaturePackDetectionCache load(Path cacheFile) {
+        final FeaturePackDetectionCache cache = new FeaturePackDetectionCache(cacheFile);
+        if (cacheFile != null) {
+            cache.entries.putAll(read(cacheFile));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Loaded " + cache.entries.size() + " feature pack detection results from " + cacheFile);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @return - cached result for the stream in the repository, or {@code null} if the stream needs to be checked
+     */
+    Result get(Stream stream, String repositoryUrl) {
+        if (!isCacheable(stream)) {
+            return null;
+        }
+        final Entry entry = entries.get(key(stream, repositoryUrl));
+        if (entry == null || isExpired(entry, System.currentTimeMillis())) {
+            return null;
+        }
+        return entry.result;
+    }
+
+    void put(Stream stream, String repositoryUrl, Result result) {
+        if (!isCacheable(stream)) {
+            return;
+        }
+        final Entry entry = new Entry(result, System.currentTimeMillis());
+        final String key = key(stream, repositoryUrl);
+        entries.put(key, entry);
+        added.put(key, entry);
+    }
+
+    /**
+     * Writes new results to the cache file. Results stored by other processes in the meantime are preserved.
+     */
+    void save() {
+        if (cacheFile == null || added.isEmpty()) {
+            return;
+        }
+        try {
+            final Map<String, Entry> merged = read(cacheFile);
+            merged.putAll(added);
+
+            final long now = System.currentTimeMillis();
+            final List<Map.Entry<String, Entry>> sorted = new ArrayList<>();
+            for (Map.Entry<String, Entry> e : merged.entrySet()) {
+                if (!isExpired(e.getValue(), now)) {
+                    sorted.add(e);
+                }
+            }
+            // keep the newest entries if the cache grew too big
+            sorted.sort(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().timestamp).reversed());
+            final List<Map.Entry<String, Entry>> retained = sorted.subList(0, Math.min(sorted.size(), MAX_ENTRIES));
+
+            Files.createDirectories(cacheFile.getParent());
+            final Path tempFile = Files.createTempFile(cacheFile.getParent(), CACHE_FILE, ".tmp");
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                    for (Map.Entry<String, Entry> e : retained) {
+                        writer.write(e.getValue().result + "\t" + e.getValue().timestamp + "\t" + e.getKey());
+                        writer.newLine();
+                    }
+                }
+                try {
+                    Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            added.clear();
+        } catch (IOException e) {
+            System.out.println("WARNING: Unable to store feature pack detection results in " + cacheFile + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isCacheable(Stream stream) {
+        return stream.getVersion() != null && !stream.getVersion().endsWith("-SNAPSHOT");
+    }
+
+    private static boolean isExpired(Entry entry, long now) {
+        return entry.result == Result.MISSING && now - entry.timestamp > MISSING_TTL;
+    }
+
+    private static String key(Stream stream, String repositoryUrl) {
+        final String url = repositoryUrl.endsWith("/") ? repositoryUrl.substring(0, repositoryUrl.length() - 1) : repositoryUrl;
+        return stream.getGroupId() + ":" + stream.getArtifactId() + ":" + stream.getVersion() + "\t" + url;
+    }
+
+    private static Map<String, Entry> read(Path cacheFile) {
+        final Map<String, Entry> entries = new HashMap<>();
+        if (!Files.exists(cacheFile)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // RESULT \t timestamp \t groupId:artifactId:version \t repositoryUrl
+                final String[] parts = line.split("\t", 4);
+                if (parts.length != 4) {
+                    continue;
+                }
+                try {
+                    entries.put(parts[2] + "\t" + parts[3], new Entry(Result.valueOf(parts[0]), Long.parseLong(parts[1])));
+                } catch (IllegalArgumentException e) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Ignoring invalid cache entry: " + line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("WARNING: Unable to read feature pack detection results from " + cacheFile + ": " + e.getMessage());
+        }
+        return entries;
+    }
+}
@@ -1,19 +1,17 @@
 package org.wildfly.prospero.extras.repository.create;
 
-import org.apache.commons.io.IOUtils;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
-import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.manifest.ManifestIndex;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.Enumeration;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,45 +20,44 @@ import java.util.zip.ZipFile;
 
 class FeaturePackUtils {
 
+    private static final String FEATURE_PACK_XML = "feature-pack.xml";
+    private static final String ARTIFACT_VERSIONS = "resources/wildfly/artifact-versions.properties";
+    private static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{(.*?)}");
+
     static boolean isFeaturePack(Path file) throws IOException {
         try (ZipFile archive = new ZipFile(file.toFile())) {
-            Enumeration<? extends ZipEntry> entries = archive.entries();
-            while (entries.hasMoreElements()) {
-                ZipEntry entry = entries.nextElement();
-                if (entry.getName().equals("feature-pack.xml")) {
-                    return true;
-                }
-            }
+            return archive.getEntry(FEATURE_PACK_XML) != null;
         }
-        return false;
     }
 
-    static HashSet<Artifact> getArtifactsFromFeaturePackZip(File zipFile, ChannelManifest manifest) throws IOException {
+    static HashSet<Artifact> getArtifactsFromFeaturePackZip(File zipFile, ManifestIndex manifest) throws IOException {
         final HashSet<Artifact> res = new HashSet<>();
         try (ZipFile archive = new ZipFile(zipFile)) {
-            Enumeration<? extends ZipEntry> entries = archive.entries();
+            // the entry is looked up in the central directory, no need to iterate over all the entries
+            final ZipEntry entry = archive.getEntry(ARTIFACT_VERSIONS);
+            if (entry == null) {
+                return res;
+            }
 
-            while(entries.hasMoreElements()){
-                ZipEntry entry = entries.nextElement();
-                if (entry.getName().equals("resources/wildfly/artifact-versions.properties")) {
-                    try (InputStream stream = archive.getInputStream(entry)) {
-                        final List<String> artifacts = IOUtils.readLines(stream, StandardCharsets.UTF_8);
-                        for (String artifact : artifacts) {
-                            final String gav = artifact.split("=")[1];
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(archive.getInputStream(entry), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final int separator = line.indexOf('=');
+                    if (separator < 0 || line.startsWith("#")) {
+                        continue;
+                    }
+                    final String gav = line.substring(separator + 1);
 
-                            final DefaultArtifact mavenArtifact = fromModulesGav(gav);
-                            if (mavenArtifact == null) {
-                                System.out.println("Ignoring artifact definition" + gav);
-                                continue;
-                            }
-                            final Optional<Stream> version = manifest.findStreamFor(mavenArtifact.getGroupId(), mavenArtifact.getArtifactId());
-                            //   if the artifact not in the manifest, ignore
-                            if (version.isPresent()) {
-                                res.add(mavenArtifact.setVersion(version.get().getVersion()));
-                            }
-                        }
+                    final DefaultArtifact mavenArtifact = fromModulesGav(gav);
+                    if (mavenArtifact == null) {
+                        System.out.println("Ignoring artifact definition" + gav);
+                        continue;
+                    }
+                    final Optional<Stream> version = manifest.findStreamFor(mavenArtifact.getGroupId(), mavenArtifact.getArtifactId());
+                    //   if the artifact not in the manifest, ignore
+                    if (version.isPresent()) {
+                        res.add(mavenArtifact.setVersion(version.get().getVersion()));
                     }
-                    break;
                 }
             }
         }
@@ -110,18 +107,20 @@ class FeaturePackUtils {
     }
 
     private static String evaluatePropertiesToDefaults(String gav) {
-        final Pattern PATTERN = Pattern.compile("\\$\\{.*?\\}");
-        final Matcher matcher = PATTERN.matcher(gav);
+        if (!gav.contains("${")) {
+            return gav;
+        }
+        final Matcher matcher = PROPERTY_PATTERN.matcher(gav);
+        final StringBuilder sb = new StringBuilder(gav.length());
         while (matcher.find()) {
-            final String group = matcher.group(0);
-            final String content = group.substring(2, group.length() - 1);
+            final String content = matcher.group(1);
             final int separatorIndex = content.indexOf(':');
             if (separatorIndex < 0) {
                 return null;
-            } else {
-                gav = gav.replace(group, content.substring(separatorIndex+1));
             }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(content.substring(separatorIndex + 1)));
         }
-        return gav;
+        matcher.appendTail(sb);
+        return sb.toString();
     }
 }
@@ -0,0 +1,62 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Ways of placing an artifact from the local Maven cache in the generated repository.
+ */
+enum LinkMode implements OutputRepositoryWriter.FilePlacement {
+    COPY {
+        @Override
+        public void place(Path source, Path target) throws IOException {
+            copy(source, target);
+        }
+    },
+    HARDLINK {
+        @Override
+        public void place(Path source, Path target) throws IOException {
+            Files.createLink(target, source);
+        }
+    },
+    REFLINK {
+        @Override
+        public void place(Path source, Path target) throws IOException {
+            // there is no Java API for copy-on-write clones, rely on coreutils to do the ioctl
+            final Process process = new ProcessBuilder("cp", "--reflink=always",
+                    source.toAbsolutePath().toString(), target.toAbsolutePath().toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            try {
+                if (process.waitFor() != 0) {
+                    throw new IOException("Unable to create a reflink of " + source);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while creating a reflink of " + source, e);
+            }
+        }
+    },
+    SYMLINK {
+        @Override
+        public void place(Path source, Path target) throws IOException {
+            Files.createSymbolicLink(target, source.toAbsolutePath());
+        }
+    };
+
+    static void copy(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
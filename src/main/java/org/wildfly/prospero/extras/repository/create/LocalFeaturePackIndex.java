@@ -0,0 +1,145 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.jboss.logging.Logger;
+import org.wildfly.channel.Stream;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Index of zip archives in a local Maven repository, recording which of them are feature packs.
+ *
+ * The repository is scanned once, walking the directories in parallel and reading only the central directory of each
+ * zip. Symbolic links to directories are not followed, and directories that cannot be read are skipped.
+ */
+class LocalFeaturePackIndex {
+
+    private static final Logger LOG = Logger.getLogger(LocalFeaturePackIndex.class);
+
+    // groupId:artifactId:version -> is feature pack
+    private final Map<String, Boolean> zips;
+
+    private LocalFeaturePackIndex(Map<String, Boolean> zips) {
+        this.zips = zips;
+    }
+
+    /**
+     * Scans a repository defined by a {@code file} URL.
+     *
+     * @return - the index, or {@code null} if the URL doesn't point to a local directory
+     */
+    static LocalFeaturePackIndex scan(String repositoryUrl) {
+        final Path root;
+        try {
+            root = Paths.get(URI.create(repositoryUrl));
+        } catch (IllegalArgumentException e) {
+            System.out.println("WARNING: Unable to use repository " + repositoryUrl + " for feature pack detection: " + e.getMessage());
+            return null;
+        }
+        if (!Files.isDirectory(root)) {
+            System.out.println("WARNING: Repository " + repositoryUrl + " is not a directory. Ignoring for feature pack detection.");
+            return null;
+        }
+        return scan(root);
+    }
+
+    static LocalFeaturePackIndex scan(Path root) {
+        final long start = System.currentTimeMillis();
+        final Map<String, Boolean> zips = new ConcurrentHashMap<>();
+        ForkJoinPool.commonPool().invoke(new ScanTask(root, root, zips));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Indexed " + zips.size() + " zips in " + root + " in " + (System.currentTimeMillis() - start) + "ms");
+        }
+        return new LocalFeaturePackIndex(zips);
+    }
+
+    /**
+     * @return - {@code true} if the repository contains the stream's zip
+     */
+    boolean containsZip(Stream stream) {
+        return zips.containsKey(key(stream.getGroupId(), stream.getArtifactId(), stream.getVersion()));
+    }
+
+    boolean isFeaturePack(Stream stream) {
+        return zips.getOrDefault(key(stream.getGroupId(), stream.getArtifactId(), stream.getVersion()), false);
+    }
+
+    private static String key(String groupId, String artifactId, String version) {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+
+    private static class ScanTask extends RecursiveAction {
+
+        private final Path root;
+        private final Path dir;
+        private final Map<String, Boolean> zips;
+
+        ScanTask(Path root, Path dir, Map<String, Boolean> zips) {
+            this.root = root;
+            this.dir = dir;
+            this.zips = zips;
+        }
+
+        @Override
+        protected void compute() {
+            final List<ScanTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    // following links to directories could loop forever
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        subtasks.add(new ScanTask(root, entry, zips));
+                    } else if (entry.getFileName().toString().endsWith(".zip")) {
+                        index(entry);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                LOG.warn("Unable to read directory " + dir + ". Ignoring its content for feature pack detection.", e);
+            }
+            invokeAll(subtasks);
+        }
+
+        private void index(Path zip) {
+            // groupId/artifactId/version/artifactId-version.zip
+            final Path relative = root.relativize(zip);
+            if (relative.getNameCount() < 4) {
+                return;
+            }
+            final String version = relative.getName(relative.getNameCount() - 2).toString();
+            final String artifactId = relative.getName(relative.getNameCount() - 3).toString();
+            if (!zip.getFileName().toString().equals(artifactId + "-" + version + ".zip")) {
+                // classified zips are not feature packs
+                return;
+            }
+            final String groupId = relative.subpath(0, relative.getNameCount() - 3).toString()
+                    .replace(zip.getFileSystem().getSeparator(), ".");
+
+            boolean featurePack;
+            try {
+                featurePack = ZipCentralDirectory.entryNames(zip).contains("feature-pack.xml");
+            } catch (IOException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Unable to read central directory of " + zip + ", opening the whole zip", e);
+                }
+                try {
+                    featurePack = FeaturePackUtils.isFeaturePack(zip);
+                } catch (IOException ex) {
+                    LOG.warn("Unable to process a zip file: " + zip + " Ignoring the file", ex);
+                    return;
+                }
+            }
+            zips.put(key(groupId, artifactId, version), featurePack);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package org.wildfly.prospero.extras.repository.create;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.deployment.DeployRequest;
 import org.eclipse.aether.deployment.DeploymentException;
+import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
@@ -20,11 +23,11 @@ import org.eclipse.aether.version.Version;
 import org.jboss.galleon.ProvisioningException;
 import org.wildfly.channel.ChannelManifestCoordinate;
 import org.wildfly.channel.version.VersionMatcher;
-import org.wildfly.prospero.api.MavenOptions;
-import org.wildfly.prospero.wfchannel.MavenSessionManager;
+import org.wildfly.prospero.extras.shared.MavenSessionProvider;
 
 import java.io.File;
-import java.net.MalformedURLException;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,22 +37,89 @@ import java.util.stream.Collectors;
 
 public class MavenDownloader {
 
+    static final int DEFAULT_THREADS = 10;
+    static final int DEFAULT_CONNECTIONS_PER_REPOSITORY = 5;
+
     private final RepositorySystem mvnSystem;
     private final DefaultRepositorySystemSession mvnSession;
     private final List<RemoteRepository> repositories;
+    private final int threads;
+    private final int maxConnectionsPerRepository;
+    private boolean streamingDeploy = false;
+    private LinkMode linkMode = null;
+    private boolean incremental = false;
+    private boolean virtualThreads = TaskExecutors.VIRTUAL_THREADS_DEFAULT;
+    private RepositoryIndex outputIndex = null;
+    private Path indexedPath = null;
 
     public MavenDownloader(List<RemoteRepository> repositories) throws ProvisioningException {
+        this(repositories, DEFAULT_THREADS, DEFAULT_CONNECTIONS_PER_REPOSITORY);
+    }
+
+    public MavenDownloader(List<RemoteRepository> repositories, int threads, int maxConnectionsPerRepository) throws ProvisioningException {
         this.repositories = repositories;
+        this.threads = threads;
+        this.maxConnectionsPerRepository = maxConnectionsPerRepository;
 
-        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
-        mvnSystem = msm.newRepositorySystem();
-        mvnSession = msm.newRepositorySystemSession(mvnSystem)
-                .setTransferListener(new AbstractTransferListener() {
-                    @Override
-                    public void transferStarted(TransferEvent event) throws TransferCancelledException {
-                        System.out.println("Downloading " + event.getResource().getResourceName());
-                    }
-                });
+        final MavenSessionProvider sessionProvider = MavenSessionProvider.getInstance();
+        mvnSystem = sessionProvider.getRepositorySystem();
+        mvnSession = sessionProvider.newSession(new AbstractTransferListener() {
+            @Override
+            public void transferStarted(TransferEvent event) throws TransferCancelledException {
+                System.out.println("Downloading " + event.getResource().getResourceName());
+            }
+        });
+    }
+
+    private MavenDownloader(MavenDownloader downloader, List<RemoteRepository> repositories) {
+        this.repositories = repositories;
+        this.threads = downloader.threads;
+        this.maxConnectionsPerRepository = downloader.maxConnectionsPerRepository;
+        this.mvnSystem = downloader.mvnSystem;
+        this.mvnSession = downloader.mvnSession;
+        this.virtualThreads = downloader.virtualThreads;
+    }
+
+    /**
+     * Creates a downloader using different repositories, but sharing the repository system and session with this
+     * downloader. The returned downloader can be used concurrently with this one.
+     */
+    public MavenDownloader withRepositories(List<RemoteRepository> repositories) {
+        return new MavenDownloader(this, repositories);
+    }
+
+    /**
+     * If enabled, {@link #downloadAndDeploy(Set, Path, boolean, boolean)} resolves the artifacts into a staging area
+     * inside the output repository and moves each one into the repository layout as soon as it is resolved, instead
+     * of going through the local Maven cache and deploying a copy.
+     */
+    void setStreamingDeploy(boolean streamingDeploy) {
+        this.streamingDeploy = streamingDeploy;
+    }
+
+    /**
+     * If set, {@link #downloadAndDeploy(Set, Path, boolean, boolean)} places the artifacts resolved into the local Maven
+     * cache in the output repository using the {@code linkMode}, instead of deploying a copy. Ignored if streaming
+     * deploy is enabled.
+     */
+    void setLinkMode(LinkMode linkMode) {
+        this.linkMode = linkMode;
+    }
+
+    /**
+     * If enabled, {@link #downloadAndDeploy(Set, Path, boolean, boolean)} skips artifacts that are already present in
+     * the output repository with a valid checksum. The output repository is only read on the first call.
+     */
+    void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * If enabled, each artifact is resolved in its own virtual thread and the concurrency is limited only by the number
+     * of connections per repository.
+     */
+    void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
     }
 
     public Artifact downloadManifest(ChannelManifestCoordinate coord) throws VersionRangeResolutionException, ArtifactResolutionException {
@@ -113,7 +183,7 @@ public class MavenDownloader {
     }
 
     void downloadAndDeploy(Set<Artifact> artifactSet, Path outputPath, boolean includeSources, boolean includePoms)
-            throws ArtifactResolutionException, MalformedURLException, DeploymentException {
+            throws ArtifactResolutionException, IOException, DeploymentException {
         final List<ArtifactRequest> requests = artifactSet.stream()
                 .flatMap(a -> {
                     final ArrayList<Artifact> artifacts = new ArrayList<>();
@@ -146,38 +216,103 @@ public class MavenDownloader {
                         );
                         artifacts.add(testSourcesArtifact);
                     }
-                    return artifacts.stream().map(ar->new ArtifactRequest(ar, repositories, null));
+                    return artifacts.stream();
                 })
-                .collect(Collectors.toList());
+                // the same pom can be requested by several artifacts, avoid resolving it concurrently
+                .distinct()
+                .map(ar->new ArtifactRequest(ar, repositories, null))
+                .collect(Collectors.toCollection(ArrayList::new));
 
-        List<Artifact> res;
-        try {
-            res = mvnSystem.resolveArtifacts(mvnSession, requests).stream().map(ArtifactResult::getArtifact).collect(Collectors.toList());
-        } catch (ArtifactResolutionException e) {
-            ArrayList<Artifact> resolved = new ArrayList<>();
-            for (ArtifactResult result : e.getResults()) {
-                if (!result.isResolved()) {
-                    if ("sources".equals(result.getRequest().getArtifact().getClassifier())) {
-                        System.out.println("WARNING: Unable to resolve sources jar: " + result.getRequest().getArtifact());
-                    } else if ("test-sources".equals(result.getRequest().getArtifact().getClassifier())) {
-                        System.out.println("WARNING: Unable to resolve sources jar: " + result.getRequest().getArtifact());
-                    } else {
-                        System.err.println("Unable to resolve: " + result.getRequest().getArtifact());
-                        throw e;
-                    }
+        final RepositoryIndex index = incremental ? getOutputIndex(outputPath) : null;
+        if (index != null) {
+            final int requested = requests.size();
+            // verifying checksums reads the existing artifacts, spread it across the cores
+            final Set<ArtifactRequest> present = requests.parallelStream()
+                    .filter(r -> index.contains(r.getArtifact()))
+                    .collect(Collectors.toSet());
+            requests.removeAll(present);
+            System.out.printf("Skipping %d of %d artifacts already present in %s%n", requested - requests.size(), requested, outputPath);
+        }
+
+        final List<ArtifactResult> results;
+        if (streamingDeploy) {
+            results = resolveAndStream(requests, outputPath);
+        } else if (linkMode != null) {
+            results = resolveAndWrite(requests, mvnSession, new OutputRepositoryWriter(outputPath, linkMode));
+        } else {
+            results = resolveAndDeploy(requests, outputPath);
+        }
+
+        boolean failed = false;
+        for (ArtifactResult result : results) {
+            if (result.isResolved()) {
+                if (index != null) {
+                    index.add(result.getArtifact());
+                }
+            } else {
+                if ("sources".equals(result.getRequest().getArtifact().getClassifier())) {
+                    System.out.println("WARNING: Unable to resolve sources jar: " + result.getRequest().getArtifact());
+                } else if ("test-sources".equals(result.getRequest().getArtifact().getClassifier())) {
+                    System.out.println("WARNING: Unable to resolve sources jar: " + result.getRequest().getArtifact());
                 } else {
-                    resolved.add(result.getArtifact());
+                    System.err.println("Unable to resolve: " + result.getRequest().getArtifact());
+                    failed = true;
                 }
             }
-            res = resolved;
         }
+        if (failed) {
+            throw new ArtifactResolutionException(results);
+        }
+    }
 
-        // TODO: check for errors
-        final DeployRequest deployRequest = new DeployRequest();
-        deployRequest.setRepository(new RemoteRepository
+    private RepositoryIndex getOutputIndex(Path outputPath) {
+        if (outputIndex == null || !outputPath.equals(indexedPath)) {
+            outputIndex = RepositoryIndex.of(outputPath);
+            indexedPath = outputPath;
+        }
+        return outputIndex;
+    }
+
+    private List<ArtifactResult> resolveAndDeploy(List<ArtifactRequest> requests, Path outputPath)
+            throws IOException, DeploymentException {
+        final RemoteRepository outputRepository = new RemoteRepository
                 .Builder("output", "default", outputPath.toUri().toURL().toExternalForm())
-                .build());
-        res.forEach(deployRequest::addArtifact);
-        mvnSystem.deploy(mvnSession, deployRequest);
+                .build();
+
+        // deploy the artifacts as they are resolved instead of waiting for the whole set
+        return new ParallelArtifactResolver(mvnSystem, mvnSession, threads, maxConnectionsPerRepository, virtualThreads)
+                .resolve(requests, resolved -> {
+                    final DeployRequest deployRequest = new DeployRequest();
+                    deployRequest.setRepository(outputRepository);
+                    resolved.forEach(deployRequest::addArtifact);
+                    mvnSystem.deploy(mvnSession, deployRequest);
+                });
+    }
+
+    private List<ArtifactResult> resolveAndStream(List<ArtifactRequest> requests, Path outputPath)
+            throws IOException, DeploymentException {
+        Files.createDirectories(outputPath);
+        // staging has to be on the same filesystem as the output, so that the artifacts can be moved rather than copied
+        final Path staging = Files.createTempDirectory(outputPath, ".staging");
+        try {
+            final DefaultRepositorySystemSession stagingSession = new DefaultRepositorySystemSession(mvnSession);
+            stagingSession.setLocalRepositoryManager(
+                    mvnSystem.newLocalRepositoryManager(stagingSession, new LocalRepository(staging.toFile())));
+
+            return resolveAndWrite(requests, stagingSession, new OutputRepositoryWriter(outputPath, OutputRepositoryWriter::moveFile));
+        } finally {
+            FileUtils.deleteQuietly(staging.toFile());
+        }
+    }
+
+    private List<ArtifactResult> resolveAndWrite(List<ArtifactRequest> requests, RepositorySystemSession session,
+                                                 OutputRepositoryWriter writer) throws IOException, DeploymentException {
+        return new ParallelArtifactResolver(mvnSystem, session, threads, maxConnectionsPerRepository, virtualThreads)
+                .resolve(requests, resolved -> {
+                    for (Artifact artifact : resolved) {
+                        writer.write(artifact);
+                    }
+                    writer.writeMetadata();
+                });
     }
 }
@@ -0,0 +1,236 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.aether.artifact.Artifact;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.version.VersionMatcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+/**
+ * Writes artifacts directly into a Maven repository layout, generating the checksums and {@code maven-metadata.xml}
+ * files the same way a deployment would.
+ *
+ * How the artifact files end up in the repository is decided by a {@link FilePlacement} - they can be moved from a
+ * staging location or linked from the local Maven cache. If the placement fails, the file is copied instead.
+ * The writer is not thread safe.
+ */
+class OutputRepositoryWriter {
+
+    private static final Logger LOG = Logger.getLogger(OutputRepositoryWriter.class);
+    private static final String METADATA_FILE = "maven-metadata.xml";
+
+    private final Path repositoryRoot;
+    private final FilePlacement placement;
+    private boolean fallbackReported = false;
+    // groupId:artifactId -> versions written since the last metadata update
+    private final Map<String, Set<String>> pendingVersions = new HashMap<>();
+
+    interface FilePlacement {
+        void place(Path source, Path target) throws IOException;
+    }
+
+    OutputRepositoryWriter(Path repositoryRoot, FilePlacement placement) {
+        this.repositoryRoot = repositoryRoot;
+        this.placement = placement;
+    }
+
+    /**
+     * Places the artifact's file in the repository and writes its checksums.
+     */
+    void write(Artifact artifact) throws IOException {
+        final Path target = repositoryRoot.resolve(layoutPath(artifact));
+        Files.createDirectories(target.getParent());
+        place(artifact.getFile().toPath(), target);
+        writeChecksums(target);
+
+        pendingVersions.computeIfAbsent(artifact.getGroupId() + ":" + artifact.getArtifactId(), k -> new TreeSet<>())
+                .add(artifact.getVersion());
+    }
+
+    /**
+     * Updates the {@code maven-metadata.xml} of all the artifacts written since the last call.
+     */
+    void writeMetadata() throws IOException {
+        for (Map.Entry<String, Set<String>> entry : pendingVersions.entrySet()) {
+            final String[] ga = entry.getKey().split(":");
+            updateMetadata(ga[0], ga[1], entry.getValue(), Set.of());
+        }
+        pendingVersions.clear();
+    }
+
+    /**
+     * Removes {@code versions} from the artifact's {@code maven-metadata.xml}. If no versions are left, the metadata
+     * is deleted together with the artifact's directory.
+     */
+    void removeVersions(String groupId, String artifactId, Set<String> versions) throws IOException {
+        updateMetadata(groupId, artifactId, Set.of(), versions);
+    }
+
+    static String layoutPath(Artifact artifact) {
+        final StringBuilder sb = new StringBuilder(128)
+                .append(artifact.getGroupId().replace('.', '/')).append('/')
+                .append(artifact.getArtifactId()).append('/')
+                .append(artifact.getVersion()).append('/')
+                .append(artifact.getArtifactId()).append('-').append(artifact.getVersion());
+        if (artifact.getClassifier() != null && !artifact.getClassifier().isEmpty()) {
+            sb.append('-').append(artifact.getClassifier());
+        }
+        if (artifact.getExtension() != null && !artifact.getExtension().isEmpty()) {
+            sb.append('.').append(artifact.getExtension());
+        }
+        return sb.toString();
+    }
+
+    private void updateMetadata(String groupId, String artifactId, Set<String> newVersions, Set<String> removedVersions) throws IOException {
+        final Path artifactDir = repositoryRoot.resolve(groupId.replace('.', '/')).resolve(artifactId);
+        final Path metadataFile = artifactDir.resolve(METADATA_FILE);
+
+        Metadata metadata = null;
+        if (Files.exists(metadataFile)) {
+            try (InputStream is = Files.newInputStream(metadataFile)) {
+                metadata = new MetadataXpp3Reader().read(is, false);
+            } catch (XmlPullParserException e) {
+                throw new IOException("Unable to parse existing metadata " + metadataFile, e);
+            }
+        }
+        if (metadata == null) {
+            metadata = new Metadata();
+            metadata.setGroupId(groupId);
+            metadata.setArtifactId(artifactId);
+        }
+        Versioning versioning = metadata.getVersioning();
+        if (versioning == null) {
+            versioning = new Versioning();
+            metadata.setVersioning(versioning);
+        }
+
+        final TreeSet<String> versions = new TreeSet<>(VersionMatcher.COMPARATOR);
+        versions.addAll(versioning.getVersions());
+        versions.addAll(newVersions);
+        versions.removeAll(removedVersions);
+        if (versions.isEmpty()) {
+            Files.deleteIfExists(metadataFile);
+            Files.deleteIfExists(metadataFile.resolveSibling(METADATA_FILE + ".md5"));
+            Files.deleteIfExists(metadataFile.resolveSibling(METADATA_FILE + ".sha1"));
+            deleteEmptyDirectories(artifactDir);
+            return;
+        }
+        versioning.setVersions(new ArrayList<>(versions));
+        versioning.setLatest(versions.last());
+        final List<String> releases = new ArrayList<>();
+        for (String version : versions) {
+            if (!version.endsWith("-SNAPSHOT")) {
+                releases.add(version);
+            }
+        }
+        versioning.setRelease(releases.isEmpty() ? null : releases.get(releases.size() - 1));
+        versioning.setLastUpdated(timestamp());
+
+        Files.createDirectories(metadataFile.getParent());
+        try (OutputStream os = Files.newOutputStream(metadataFile)) {
+            new MetadataXpp3Writer().write(os, metadata);
+        }
+        writeChecksums(metadataFile);
+    }
+
+    private void deleteEmptyDirectories(Path dir) throws IOException {
+        while (dir != null && !dir.equals(repositoryRoot) && Files.isDirectory(dir)) {
+            try (java.util.stream.Stream<Path> content = Files.list(dir)) {
+                if (content.findAny().isPresent()) {
+                    return;
+                }
+            }
+            Files.delete(dir);
+            dir = dir.getParent();
+        }
+    }
+
+    private void place(Path source, Path target) throws IOException {
+        // never write through a link left over from a previous run
+        Files.deleteIfExists(target);
+        try {
+            placement.place(source, target);
+        } catch (IOException | UnsupportedOperationException e) {
+            if (placement == LinkMode.COPY) {
+                throw e;
+            }
+            if (!fallbackReported) {
+                System.out.println("WARNING: Unable to place artifacts using " + placement + ", falling back to copying: " + e.getMessage());
+                fallbackReported = true;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Copying " + source + " to " + target, e);
+            }
+            Files.deleteIfExists(target);
+            LinkMode.copy(source, target);
+        }
+    }
+
+    static void moveFile(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static void writeChecksums(Path file) throws IOException {
+        final MessageDigest md5;
+        final MessageDigest sha1;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+            sha1 = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        final byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                md5.update(buffer, 0, read);
+                sha1.update(buffer, 0, read);
+            }
+        }
+
+        Files.writeString(file.resolveSibling(file.getFileName() + ".md5"), toHex(md5.digest()), StandardCharsets.US_ASCII);
+        Files.writeString(file.resolveSibling(file.getFileName() + ".sha1"), toHex(sha1.digest()), StandardCharsets.US_ASCII);
+    }
+
+    static String toHex(byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static String timestamp() {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date());
+    }
+}
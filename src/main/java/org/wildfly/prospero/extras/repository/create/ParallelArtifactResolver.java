@@ -0,0 +1,163 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.deployment.DeploymentException;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves artifacts on a pool of worker threads.
+ *
+ * Each artifact is resolved by a single worker, trying the repositories in the order they were requested. The number
+ * of concurrent requests sent to any one repository is limited by {@code maxConnectionsPerRepository}. The workers are
+ * either a fixed pool of platform threads, or a virtual thread per artifact. Resolved
+ * artifacts are handed to a {@link BatchConsumer} on the calling thread as soon as they become available.
+ */
+class ParallelArtifactResolver {
+
+    private static final Logger LOG = Logger.getLogger(ParallelArtifactResolver.class);
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+    private final RepositorySystem system;
+    private final RepositorySystemSession session;
+    private final int threads;
+    private final int maxConnectionsPerRepository;
+    private final boolean virtualThreads;
+    private final Map<String, Semaphore> repositoryPermits = new ConcurrentHashMap<>();
+
+    interface BatchConsumer {
+        void accept(List<Artifact> resolved) throws DeploymentException, IOException;
+    }
+
+    /**
+     * @param threads - number of worker threads. Ignored if virtual threads are used.
+     * @param virtualThreads - resolve each artifact in its own virtual thread (if supported by the JVM)
+     */
+    ParallelArtifactResolver(RepositorySystem system, RepositorySystemSession session, int threads,
+                             int maxConnectionsPerRepository, boolean virtualThreads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads has to be a positive number, was " + threads);
+        }
+        if (maxConnectionsPerRepository < 1) {
+            throw new IllegalArgumentException("The number of connections per repository has to be a positive number, was " + maxConnectionsPerRepository);
+        }
+        this.system = system;
+        this.session = session;
+        this.threads = threads;
+        this.maxConnectionsPerRepository = maxConnectionsPerRepository;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Resolves all the {@code requests} passing the resolved artifacts to the {@code consumer} in batches.
+     *
+     * @param requests - artifacts to resolve
+     * @param consumer - callback receiving resolved artifacts. Always called from the calling thread.
+     * @return - results of all the requests, including the unresolved ones
+     */
+    List<ArtifactResult> resolve(Collection<ArtifactRequest> requests, BatchConsumer consumer) throws DeploymentException, IOException {
+        final List<ArtifactResult> results = new ArrayList<>(requests.size());
+        final ExecutorService executorService = TaskExecutors.newExecutor(virtualThreads, () -> Executors.newFixedThreadPool(threads));
+        final CompletionService<ArtifactResult> completionService = new ExecutorCompletionService<>(executorService);
+
+        final long start = System.nanoTime();
+        long lastReport = start;
+        long bytes = 0;
+        try {
+            for (ArtifactRequest request : requests) {
+                completionService.submit(() -> resolve(request));
+            }
+
+            int remaining = requests.size();
+            while (remaining > 0) {
+                final List<Artifact> batch = new ArrayList<>();
+                Future<ArtifactResult> next = completionService.take();
+                while (next != null) {
+                    remaining--;
+                    final ArtifactResult result = next.get();
+                    results.add(result);
+                    if (result.isResolved()) {
+                        batch.add(result.getArtifact());
+                        bytes += sizeOf(result.getArtifact());
+                    }
+                    next = (remaining > 0 && batch.size() < MAX_BATCH_SIZE) ? completionService.poll() : null;
+                }
+
+                if (!batch.isEmpty()) {
+                    consumer.accept(batch);
+                }
+
+                final long now = System.nanoTime();
+                if (now - lastReport > PROGRESS_INTERVAL) {
+                    System.out.printf("Resolved %d/%d artifacts%n", results.size(), requests.size());
+                    lastReport = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        final double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+        final double megabytes = bytes / (1024.0 * 1024.0);
+        System.out.printf("Resolved %d artifacts (%.1f MB) in %.1fs [%.2f MB/s, %.1f artifacts/s]%n",
+                results.size(), megabytes, seconds, megabytes / seconds, results.size() / seconds);
+
+        return results;
+    }
+
+    private ArtifactResult resolve(ArtifactRequest request) throws InterruptedException {
+        final ArtifactResult failed = new ArtifactResult(request);
+        for (RemoteRepository repository : request.getRepositories()) {
+            final Semaphore permits = repositoryPermits.computeIfAbsent(repository.getId(),
+                    id -> new Semaphore(maxConnectionsPerRepository));
+            permits.acquire();
+            try {
+                final ArtifactRequest singleRepositoryRequest = new ArtifactRequest(request.getArtifact(),
+                        List.of(repository), request.getRequestContext());
+                return system.resolveArtifact(session, singleRepositoryRequest);
+            } catch (ArtifactResolutionException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Unable to resolve " + request.getArtifact() + " from " + repository.getId());
+                }
+                for (ArtifactResult result : e.getResults()) {
+                    result.getExceptions().forEach(failed::addException);
+                }
+            } finally {
+                permits.release();
+            }
+        }
+        return failed;
+    }
+
+    private static long sizeOf(Artifact artifact) {
+        final File file = artifact.getFile();
+        return file == null ? 0 : file.length();
+    }
+}
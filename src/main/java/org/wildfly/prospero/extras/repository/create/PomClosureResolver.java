@@ -0,0 +1,277 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves all the POMs required to build a set of POMs - their parents and BOMs imported in their
+ * {@code dependencyManagement}, then parents and imports of those POMs and so on.
+ *
+ * POMs are parsed and resolved concurrently. Each POM is resolved and parsed only once, no matter how many POMs
+ * reference it. Versions of imported BOMs can use properties defined in the POM or inherited from its parents.
+ */
+class PomClosureResolver {
+
+    private static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+    private static final int MAX_INTERPOLATION_DEPTH = 10;
+
+    interface PomDownloader {
+        File download(String groupId, String artifactId, String version) throws ArtifactResolutionException;
+    }
+
+    private final PomDownloader downloader;
+    private final int threads;
+    private final boolean virtualThreads;
+    // groupId:artifactId:version -> downloaded and parsed POM, shared by all the workers
+    private final Map<String, CompletableFuture<ResolvedPom>> resolvedPoms = new ConcurrentHashMap<>();
+
+    PomClosureResolver(PomDownloader downloader, int threads, boolean virtualThreads) {
+        this.downloader = downloader;
+        this.threads = threads;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @param poms - POM files to start from
+     * @return - resolved POM artifacts referenced by the {@code poms}, directly or transitively
+     */
+    Set<Artifact> resolve(Collection<Path> poms) throws ArtifactResolutionException, IOException {
+        final Set<Artifact> resolved = new HashSet<>();
+        // groupId:artifactId:version of POMs that were already submitted for resolution
+        final Set<String> visited = new HashSet<>();
+
+        final ExecutorService executorService = TaskExecutors.newExecutor(virtualThreads, () -> Executors.newFixedThreadPool(threads));
+        final CompletionService<PomResult> completionService = new ExecutorCompletionService<>(executorService);
+        try {
+            for (Path pom : poms) {
+                completionService.submit(() -> new PomResult(null, references(parse(pom), pom)));
+            }
+
+            // the results are processed on a single thread, so the visited set doesn't need to be synchronized
+            int remaining = poms.size();
+            while (remaining > 0) {
+                final PomResult result = completionService.take().get();
+                remaining--;
+
+                if (result.artifact != null) {
+                    resolved.add(result.artifact);
+                }
+                for (PomReference reference : result.references) {
+                    if (visited.add(reference.toString())) {
+                        completionService.submit(() -> resolve(reference));
+                        remaining++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        return resolved;
+    }
+
+    private PomResult resolve(PomReference reference) throws ArtifactResolutionException, IOException, InterruptedException {
+        final ResolvedPom pom = getPom(reference);
+        final Artifact artifact = new DefaultArtifact(reference.groupId, reference.artifactId, null, "pom",
+                reference.version, null, pom.file);
+        return new PomResult(artifact, references(pom.model, pom.file.toPath()));
+    }
+
+    /**
+     * Downloads and parses the POM, unless another worker already did.
+     */
+    private ResolvedPom getPom(PomReference reference) throws ArtifactResolutionException, IOException, InterruptedException {
+        final CompletableFuture<ResolvedPom> future = new CompletableFuture<>();
+        final CompletableFuture<ResolvedPom> existing = resolvedPoms.putIfAbsent(reference.toString(), future);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        try {
+            System.out.printf("Resolving pom: %s%n", reference);
+            final File file = downloader.download(reference.groupId, reference.artifactId, reference.version);
+            final ResolvedPom pom = new ResolvedPom(file, parse(file.toPath()));
+            future.complete(pom);
+            return pom;
+        } catch (ArtifactResolutionException | IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private List<PomReference> references(Model model, Path pom) throws ArtifactResolutionException, IOException, InterruptedException {
+        final List<PomReference> references = new ArrayList<>();
+        final Parent parent = model.getParent();
+        if (parent != null) {
+            references.add(new PomReference(parent.getGroupId(), parent.getArtifactId(), parent.getVersion()));
+        }
+
+        if (model.getDependencyManagement() != null) {
+            Properties properties = null;
+            for (Dependency dependency : model.getDependencyManagement().getDependencies()) {
+                if (!"import".equals(dependency.getScope()) || !"pom".equals(dependency.getType())) {
+                    continue;
+                }
+                if (properties == null) {
+                    properties = getProperties(model);
+                }
+                final String groupId = interpolate(dependency.getGroupId(), properties);
+                final String artifactId = interpolate(dependency.getArtifactId(), properties);
+                final String version = interpolate(dependency.getVersion(), properties);
+                if (groupId == null || artifactId == null || version == null) {
+                    System.out.printf("WARNING: Unable to resolve the version of imported %s:%s:%s in %s%n",
+                            dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), pom);
+                    continue;
+                }
+                references.add(new PomReference(groupId, artifactId, version));
+            }
+        }
+        return references;
+    }
+
+    /**
+     * Properties available for interpolation in the {@code model}, including those inherited from its parents.
+     */
+    private Properties getProperties(Model model) throws ArtifactResolutionException, IOException, InterruptedException {
+        final Properties properties = new Properties();
+        final Parent parent = model.getParent();
+        if (parent != null) {
+            final ResolvedPom parentPom = getPom(new PomReference(parent.getGroupId(), parent.getArtifactId(), parent.getVersion()));
+            properties.putAll(getProperties(parentPom.model));
+            properties.setProperty("project.parent.groupId", parent.getGroupId());
+            properties.setProperty("project.parent.artifactId", parent.getArtifactId());
+            properties.setProperty("project.parent.version", parent.getVersion());
+        }
+        properties.putAll(model.getProperties());
+
+        final String groupId = model.getGroupId() != null ? model.getGroupId() : parent == null ? null : parent.getGroupId();
+        final String version = model.getVersion() != null ? model.getVersion() : parent == null ? null : parent.getVersion();
+        for (String prefix : new String[]{"project.", "pom."}) {
+            if (groupId != null) {
+                properties.setProperty(prefix + "groupId", groupId);
+            }
+            if (version != null) {
+                properties.setProperty(prefix + "version", version);
+            }
+            properties.setProperty(prefix + "artifactId", model.getArtifactId());
+        }
+        return properties;
+    }
+
+    /**
+     * @return - the value with all the {@code ${property}} expressions replaced, or {@code null} if some of the
+     * properties are not defined
+     */
+    static String interpolate(String value, Properties properties) {
+        if (value == null) {
+            return null;
+        }
+        String result = value;
+        for (int i = 0; i < MAX_INTERPOLATION_DEPTH && result.contains("${"); i++) {
+            final Matcher matcher = PROPERTY_PATTERN.matcher(result);
+            final StringBuilder sb = new StringBuilder();
+            while (matcher.find()) {
+                final String replacement = properties.getProperty(matcher.group(1));
+                if (replacement == null) {
+                    return null;
+                }
+                matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+            }
+            matcher.appendTail(sb);
+            result = sb.toString();
+        }
+        return result.contains("${") ? null : result;
+    }
+
+    private static Model parse(Path pom) throws IOException {
+        try (InputStream is = Files.newInputStream(pom)) {
+            return new MavenXpp3Reader().read(is);
+        } catch (XmlPullParserException e) {
+            throw new RuntimeException("Unable to parse " + pom, e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) throws ArtifactResolutionException, IOException {
+        if (e.getCause() instanceof ArtifactResolutionException) {
+            throw (ArtifactResolutionException) e.getCause();
+        } else if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+        } else if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return new RuntimeException(e.getCause());
+    }
+
+    private static final class PomReference {
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+
+        PomReference(String groupId, String artifactId, String version) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + version;
+        }
+    }
+
+    private static final class ResolvedPom {
+        private final File file;
+        private final Model model;
+
+        ResolvedPom(File file, Model model) {
+            this.file = file;
+            this.model = model;
+        }
+    }
+
+    private static final class PomResult {
+        private final Artifact artifact;
+        private final List<PomReference> references;
+
+        PomResult(Artifact artifact, List<PomReference> references) {
+            this.artifact = artifact;
+            this.references = references;
+        }
+    }
+}
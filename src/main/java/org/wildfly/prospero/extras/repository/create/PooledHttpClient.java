@@ -0,0 +1,149 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client with a connection pool shared by all the requests sent during feature pack detection.
+ *
+ * Connections are kept alive and reused between requests to the same repository. Requests failing with an I/O error,
+ * or rejected with {@code 429} or {@code 503} status, are retried with an exponential backoff. The timeouts and number
+ * of retries can be changed using {@code wildfly.prospero.fp.http.*} system properties.
+ */
+class PooledHttpClient implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(PooledHttpClient.class);
+    private static final int CONNECT_TIMEOUT = Integer.getInteger("wildfly.prospero.fp.http.connect_timeout", 10_000);
+    private static final int SOCKET_TIMEOUT = Integer.getInteger("wildfly.prospero.fp.http.socket_timeout", 60_000);
+    private static final int RETRIES = Integer.getInteger("wildfly.prospero.fp.http.retries", 3);
+    private static final long RETRY_BACKOFF = Long.getLong("wildfly.prospero.fp.http.retry_backoff", 500);
+    // used if the server doesn't say how long to keep the connection
+    private static final long DEFAULT_KEEP_ALIVE = TimeUnit.SECONDS.toMillis(30);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+
+    /**
+     * @param maxConnectionsPerRoute - maximum number of connections open to a single repository
+     */
+    PooledHttpClient(int maxConnectionsPerRoute) {
+        connectionManager = new PoolingHttpClientConnectionManager(DEFAULT_KEEP_ALIVE * 2, TimeUnit.MILLISECONDS);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setMaxTotal(maxConnectionsPerRoute * 4);
+        connectionManager.setValidateAfterInactivity(2_000);
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setSocketTimeout(SOCKET_TIMEOUT)
+                .setConnectionRequestTimeout(SOCKET_TIMEOUT)
+                .build();
+
+        client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setRedirectStrategy(new LaxRedirectStrategy())
+                .setKeepAliveStrategy((response, context) -> {
+                    final long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? keepAlive : DEFAULT_KEEP_ALIVE;
+                })
+                .setRetryHandler(new BackoffRetryHandler())
+                .setServiceUnavailableRetryStrategy(new BackoffServiceUnavailableStrategy())
+                .evictExpiredConnections()
+                .evictIdleConnections(DEFAULT_KEEP_ALIVE, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    CloseableHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * @return - human-readable utilization of the connection pool
+     */
+    String getStats() {
+        final PoolStats stats = connectionManager.getTotalStats();
+        return String.format("connections leased: %d, available: %d, pending: %d, max: %d",
+                stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Closing HTTP connection pool. " + getStats());
+        }
+        client.close();
+    }
+
+    private static long backoff(int executionCount) {
+        return RETRY_BACKOFF * (1L << Math.min(executionCount - 1, 10));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class BackoffRetryHandler extends DefaultHttpRequestRetryHandler {
+
+        BackoffRetryHandler() {
+            // HEAD and GET requests are idempotent, so they can be retried even if they were already sent
+            super(RETRIES, true);
+        }
+
+        @Override
+        public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+            final boolean retry = super.retryRequest(exception, executionCount, context);
+            if (retry) {
+                final long delay = backoff(executionCount);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Request failed with " + exception + ", retrying in " + delay + "ms");
+                }
+                sleep(delay);
+            }
+            return retry && !Thread.currentThread().isInterrupted();
+        }
+    }
+
+    private static class BackoffServiceUnavailableStrategy implements ServiceUnavailableRetryStrategy {
+
+        // the interval is requested right after retryRequest on the same thread
+        private final ThreadLocal<Long> nextInterval = ThreadLocal.withInitial(() -> RETRY_BACKOFF);
+
+        @Override
+        public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+            final int status = response.getStatusLine().getStatusCode();
+            if (executionCount > RETRIES
+                    || (status != HttpStatus.SC_SERVICE_UNAVAILABLE && status != 429)) {
+                return false;
+            }
+            nextInterval.set(backoff(executionCount));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Server responded with " + status + ", retrying in " + nextInterval.get() + "ms");
+            }
+            return true;
+        }
+
+        @Override
+        public long getRetryInterval() {
+            return nextInterval.get();
+        }
+    }
+}
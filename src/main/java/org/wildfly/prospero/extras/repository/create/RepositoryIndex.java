@@ -0,0 +1,184 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.aether.artifact.Artifact;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the artifacts already present in a generated repository.
+ *
+ * Only files with a {@code .sha1} checksum matching their content are considered present, so that interrupted or
+ * corrupted downloads are fetched again. Checksums are verified on demand, only for the artifacts that are looked up,
+ * and the result is remembered for the lifetime of the index.
+ */
+class RepositoryIndex {
+
+    private static final Logger LOG = Logger.getLogger(RepositoryIndex.class);
+    private static final List<String> IGNORED_SUFFIXES = List.of(".md5", ".sha1", ".sha256", ".sha512", ".asc", ".lastUpdated");
+
+    private final Path root;
+    // layout path -> checksum verified
+    private final Map<String, Boolean> checked = new ConcurrentHashMap<>();
+
+    private RepositoryIndex(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Creates an index of the repository at {@code root}. The repository does not have to exist.
+     */
+    static RepositoryIndex of(Path root) {
+        return new RepositoryIndex(root);
+    }
+
+    /**
+     * Checks if the {@code artifact} is present in the repository with a valid checksum. Safe to call from multiple
+     * threads.
+     */
+    boolean contains(Artifact artifact) {
+        final String path = OutputRepositoryWriter.layoutPath(artifact);
+        final Boolean known = checked.get(path);
+        if (known != null) {
+            return known;
+        }
+        // not computeIfAbsent - hashing a large file would block lookups of other artifacts
+        final boolean valid = hasValidChecksum(root.resolve(path));
+        final Boolean previous = checked.putIfAbsent(path, valid);
+        return previous != null ? previous : valid;
+    }
+
+    void add(Artifact artifact) {
+        checked.put(OutputRepositoryWriter.layoutPath(artifact), true);
+    }
+
+    static String gav(Artifact artifact) {
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion();
+    }
+
+    /**
+     * Removes all versions of artifacts in the repository at {@code root} that are not listed in {@code gavsToKeep},
+     * and updates the {@code maven-metadata.xml} accordingly.
+     *
+     * @param root - repository to prune
+     * @param gavsToKeep - {@code groupId:artifactId:version} of artifacts that should stay in the repository
+     * @return - number of removed artifact versions
+     */
+    static int prune(Path root, Set<String> gavsToKeep) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        // groupId:artifactId -> stale versions
+        final Map<String, Set<String>> staleVersions = new HashMap<>();
+        final Set<Path> staleDirectories = new HashSet<>();
+        for (Path file : findArtifactFiles(root)) {
+            final Path versionDir = file.getParent();
+            final Path artifactDir = versionDir.getParent();
+            final String version = versionDir.getFileName().toString();
+            final String artifactId = artifactDir.getFileName().toString();
+            final String groupId = relativePath(root, artifactDir.getParent()).replace('/', '.');
+
+            if (!gavsToKeep.contains(groupId + ":" + artifactId + ":" + version)) {
+                staleDirectories.add(versionDir);
+                staleVersions.computeIfAbsent(groupId + ":" + artifactId, k -> new HashSet<>()).add(version);
+            }
+        }
+
+        for (Path dir : staleDirectories) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Removing " + dir);
+            }
+            FileUtils.deleteDirectory(dir.toFile());
+        }
+
+        final OutputRepositoryWriter writer = new OutputRepositoryWriter(root, LinkMode.COPY);
+        for (Map.Entry<String, Set<String>> entry : staleVersions.entrySet()) {
+            final String[] ga = entry.getKey().split(":");
+            writer.removeVersions(ga[0], ga[1], entry.getValue());
+        }
+        return staleDirectories.size();
+    }
+
+    private static List<Path> findArtifactFiles(Path root) throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.walk(root)) {
+            return files
+                    .filter(f -> isArtifactFile(root, f))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isArtifactFile(Path root, Path file) {
+        final Path relative = root.relativize(file);
+        // groupId (at least one segment)/artifactId/version/file
+        if (relative.getNameCount() < 4 || relative.getName(0).toString().startsWith(".") || !Files.isRegularFile(file)) {
+            return false;
+        }
+        final String name = file.getFileName().toString();
+        if (name.startsWith("maven-metadata") || name.startsWith("_") || name.startsWith(".")) {
+            return false;
+        }
+        for (String suffix : IGNORED_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasValidChecksum(Path file) {
+        final Path checksumFile = file.resolveSibling(file.getFileName() + ".sha1");
+        if (!Files.isRegularFile(file) || !Files.exists(checksumFile)) {
+            return false;
+        }
+        try {
+            final String content = Files.readString(checksumFile, StandardCharsets.US_ASCII).trim();
+            if (content.isEmpty()) {
+                return false;
+            }
+            // some tools append the file name after the checksum
+            final String expected = content.split("\\s+")[0];
+            return expected.equalsIgnoreCase(sha1(file));
+        } catch (IOException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Unable to verify " + file, e);
+            }
+            return false;
+        }
+    }
+
+    private static String sha1(Path file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        final byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return OutputRepositoryWriter.toHex(digest.digest());
+    }
+
+    private static String relativePath(Path root, Path file) {
+        return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+}
@@ -0,0 +1,63 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.jboss.logging.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Creates executors for blocking I/O tasks.
+ *
+ * If virtual threads are requested and the JVM supports them (Java 21+), every task runs in its own virtual thread and
+ * concurrency needs to be limited by the callers, e.g. per repository. Otherwise, the platform executor is used.
+ * Virtual threads can be enabled by default with the {@code wildfly.prospero.virtual_threads} system property.
+ */
+final class TaskExecutors {
+
+    private static final Logger LOG = Logger.getLogger(TaskExecutors.class);
+    static final boolean VIRTUAL_THREADS_DEFAULT = Boolean.getBoolean("wildfly.prospero.virtual_threads");
+    // the project is compiled for Java 17, look the factory method up at runtime
+    private static final MethodHandle NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+    private static volatile boolean unsupportedReported = false;
+
+    private TaskExecutors() {
+    }
+
+    static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * @param virtualThreads - if {@code true} and supported by the JVM, returns a virtual-thread-per-task executor
+     * @param platformExecutor - executor to use otherwise
+     */
+    static ExecutorService newExecutor(boolean virtualThreads, Supplier<ExecutorService> platformExecutor) {
+        if (virtualThreads) {
+            if (isVirtualThreadsSupported()) {
+                try {
+                    return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke();
+                } catch (Throwable e) {
+                    LOG.debug("Unable to create a virtual thread executor", e);
+                }
+            }
+            if (!unsupportedReported) {
+                unsupportedReported = true;
+                System.out.println("WARNING: Virtual threads are not supported by Java " + Runtime.version().feature()
+                        + ", using platform threads instead.");
+            }
+        }
+        return platformExecutor.get();
+    }
+
+    private static MethodHandle findVirtualThreadExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(java.util.concurrent.Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Location of the central directory of a zip archive, read from the end of central directory record.
+ *
+ * Allows listing the entries of an archive by reading only its last {@link #MAX_TAIL_SIZE} bytes and the central
+ * directory itself. ZIP64 archives are not supported.
+ */
+class ZipCentralDirectory {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_HEADER_SIZE = 46;
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+
+    /**
+     * Maximum size of the end of central directory record - the fixed fields followed by up to 64kB of comment.
+     */
+    static final int MAX_TAIL_SIZE = EOCD_SIZE + 0xFFFF;
+
+    private final long offset;
+    private final long size;
+
+    private ZipCentralDirectory(long offset, long size) {
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Finds the end of central directory record in the last bytes of an archive.
+     *
+     * @param tail - up to {@link #MAX_TAIL_SIZE} last bytes of the archive
+     * @throws IOException - if the record cannot be found or the archive uses ZIP64 extensions
+     */
+    static ZipCentralDirectory locate(byte[] tail) throws IOException {
+        // the record is followed only by the comment, so search backwards from the latest possible position
+        for (int pos = tail.length - EOCD_SIZE; pos >= 0; pos--) {
+            if (readInt(tail, pos) == EOCD_SIGNATURE && pos + EOCD_SIZE + readShort(tail, pos + 20) <= tail.length) {
+                final long size = readInt(tail, pos + 12) & ZIP64_MARKER;
+                final long offset = readInt(tail, pos + 16) & ZIP64_MARKER;
+                if (size == ZIP64_MARKER || offset == ZIP64_MARKER) {
+                    throw new IOException("ZIP64 archives are not supported");
+                }
+                return new ZipCentralDirectory(offset, size);
+            }
+        }
+        throw new IOException("Unable to find the end of central directory record");
+    }
+
+    /**
+     * Reads entry names of a local archive, mapping only the end of the file and the central directory into memory.
+     */
+    static List<String> entryNames(Path zip) throws IOException {
+        try (FileChannel channel = FileChannel.open(zip, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            final int tailSize = (int) Math.min(fileSize, MAX_TAIL_SIZE);
+            final long tailStart = fileSize - tailSize;
+            final byte[] tail = read(channel, tailStart, tailSize);
+
+            final ZipCentralDirectory centralDirectory = locate(tail);
+            if (centralDirectory.offset >= tailStart) {
+                return centralDirectory.entryNames(tail, (int) (centralDirectory.offset - tailStart));
+            }
+            if (centralDirectory.offset + centralDirectory.size > fileSize || centralDirectory.size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid central directory location in " + zip);
+            }
+            return centralDirectory.entryNames(read(channel, centralDirectory.offset, (int) centralDirectory.size), 0);
+        }
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Reads entry names from the central directory.
+     *
+     * @param data - buffer containing the central directory
+     * @param start - position of the central directory in the {@code data}
+     */
+    List<String> entryNames(byte[] data, int start) throws IOException {
+        if (start < 0 || start + size > data.length) {
+            throw new IOException("The buffer doesn't contain the whole central directory");
+        }
+        final List<String> names = new ArrayList<>();
+        final int end = (int) (start + size);
+        int pos = start;
+        while (pos + CEN_HEADER_SIZE <= end) {
+            if (readInt(data, pos) != CEN_SIGNATURE) {
+                throw new IOException("Invalid central directory header at " + (offset + pos - start));
+            }
+            final int nameLength = readShort(data, pos + 28);
+            final int extraLength = readShort(data, pos + 30);
+            final int commentLength = readShort(data, pos + 32);
+            if (pos + CEN_HEADER_SIZE + nameLength > end) {
+                throw new IOException("Truncated central directory entry at " + (offset + pos - start));
+            }
+            names.add(new String(data, pos + CEN_HEADER_SIZE, nameLength, StandardCharsets.UTF_8));
+            pos += CEN_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        return names;
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int readShort(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8;
+    }
+
+    private static int readInt(byte[] data, int pos) {
+        return readShort(data, pos) | readShort(data, pos + 2) << 16;
+    }
+}
@@ -0,0 +1,133 @@
+package org.wildfly.prospero.extras.server;
+
+import org.wildfly.prospero.extras.ReturnCodes;
+import org.wildfly.prospero.extras.shared.CommandWithHelp;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Sends a request to a server started with the {@code server} command and prints the response.
+ */
+@CommandLine.Command(name = "client")
+public class ClientCommand extends CommandWithHelp {
+
+    private static final Map<String, String> OPERATIONS = Map.of(
+            "manifest-merge", "/manifest-merge",
+            "manifest-subtract", "/manifest-subtract",
+            "manifest-diff", "/manifest-diff",
+            "query-version", "/channel/query-version",
+            "status", "/status",
+            "shutdown", "/shutdown");
+
+    @CommandLine.Parameters(index = "0", descriptionKey = "operation")
+    String operation;
+
+    @CommandLine.Parameters(index = "1..*", arity = "0..*", descriptionKey = "files")
+    List<Path> files = Collections.emptyList();
+
+    @CommandLine.Option(names = {"--port"})
+    int port = ManifestServer.DEFAULT_PORT;
+
+    @CommandLine.Option(names = {"--token-file"})
+    Path tokenFile;
+
+    @CommandLine.Option(names = {"--mode"})
+    String mode;
+
+    @CommandLine.Option(names = {"--name"})
+    String name;
+
+    @CommandLine.Option(names = {"--id"})
+    String id;
+
+    @CommandLine.Option(names = {"--format"})
+    String format;
+
+    @CommandLine.Option(names = {"--exclude"})
+    String exclude;
+
+    @CommandLine.Option(names = {"--groupId"})
+    String groupId;
+
+    @CommandLine.Option(names = {"--artifactId"})
+    String artifactId;
+
+    @Override
+    public Integer call() throws Exception {
+        final String endpoint = OPERATIONS.get(operation);
+        if (endpoint == null) {
+            System.err.printf("Unknown operation [%s], supported operations are: %s%n", operation, OPERATIONS.keySet());
+            return ReturnCodes.INVALID_ARGUMENTS;
+        }
+
+        final Path tokenPath = tokenFile != null ? tokenFile : ManifestServer.defaultTokenFile(port);
+        final String token;
+        try {
+            token = ManifestServer.readToken(tokenPath);
+        } catch (IOException e) {
+            System.err.printf("Unable to read the server token from %s, is the server running? %s%n", tokenPath, e.getMessage());
+            return ReturnCodes.ERROR;
+        }
+
+        final URI uri = URI.create(String.format("http://127.0.0.1:%d%s?%s", port, endpoint, buildQuery()));
+        final HttpRequest.Builder request = HttpRequest.newBuilder(uri).header(ManifestServer.TOKEN_HEADER, token);
+        if ("shutdown".equals(operation)) {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.GET();
+        }
+        final HttpResponse<String> response;
+        try {
+            response = HttpClient.newHttpClient().send(request.build(),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.printf("Unable to connect to the server on port %d: %s%n", port, e.getMessage());
+            return ReturnCodes.ERROR;
+        }
+
+        if (response.statusCode() == 200) {
+            System.out.print(response.body());
+            return ReturnCodes.SUCCESS;
+        } else {
+            System.err.println(response.body());
+            return response.statusCode() == 400 ? ReturnCodes.INVALID_ARGUMENTS : ReturnCodes.ERROR;
+        }
+    }
+
+    String buildQuery() {
+        final List<String[]> params = new ArrayList<>();
+        for (Path file : files) {
+            // the server can run in a different working directory
+            params.add(new String[]{"query-version".equals(operation) ? "channel" : "manifest",
+                    file.toAbsolutePath().toString()});
+        }
+        params.add(new String[]{"mode", mode});
+        params.add(new String[]{"name", name});
+        params.add(new String[]{"id", id});
+        params.add(new String[]{"format", format});
+        params.add(new String[]{"exclude", exclude});
+        params.add(new String[]{"groupId", groupId});
+        params.add(new String[]{"artifactId", artifactId});
+
+        final StringJoiner query = new StringJoiner("&");
+        for (String[] param : params) {
+            if (param[1] != null) {
+                query.add(param[0] + "=" + URLEncoder.encode(param[1], StandardCharsets.UTF_8));
+            }
+        }
+        return query.toString();
+    }
+}
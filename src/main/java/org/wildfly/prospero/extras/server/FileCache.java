@@ -0,0 +1,101 @@
+package org.wildfly.prospero.extras.server;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LRU cache of values loaded from files, e.g. parsed manifests.
+ *
+ * A cached value is reloaded if the modification time or size of the file changed since it was loaded, or if it is older
+ * than the time-to-live of the cache. If the cache is full, the least recently used value is evicted.
+ *
+ * @param <V> - type of the cached values
+ */
+class FileCache<V> {
+
+    interface Loader<V> {
+        V load(Path path) throws Exception;
+    }
+
+    private final Loader<V> loader;
+    private final long ttlNanos;
+    // guarded by this
+    private final Map<Path, Entry<V>> entries;
+    private long hits;
+    private long misses;
+
+    FileCache(int maxEntries, Loader<V> loader) {
+        this(maxEntries, 0, loader);
+    }
+
+    /**
+     * @param ttlMillis - time after which the values are loaded again even if the file didn't change, {@code 0} to keep
+     *                  the values until the file changes
+     */
+    FileCache(int maxEntries, long ttlMillis, Loader<V> loader) {
+        this.loader = loader;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    V get(Path path) throws Exception {
+        final Path key = path.toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+
+        synchronized (this) {
+            final Entry<V> entry = entries.get(key);
+            if (entry != null && entry.isCurrent(attributes) && !isExpired(entry)) {
+                hits++;
+                return entry.value;
+            }
+            misses++;
+        }
+
+        // the value is loaded outside of the lock, so that slow loads don't block other files
+        final V value = loader.load(key);
+        synchronized (this) {
+            entries.put(key, new Entry<>(attributes, value));
+        }
+        return value;
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && System.nanoTime() - entry.loadedAt > ttlNanos;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized String getStats() {
+        return String.format("entries: %d, hits: %d, misses: %d", entries.size(), hits, misses);
+    }
+
+    private static final class Entry<V> {
+        private final FileTime lastModified;
+        private final long size;
+        private final long loadedAt;
+        private final V value;
+
+        Entry(BasicFileAttributes attributes, V value) {
+            this.lastModified = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.loadedAt = System.nanoTime();
+            this.value = value;
+        }
+
+        boolean isCurrent(BasicFileAttributes attributes) {
+            return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+    }
+}
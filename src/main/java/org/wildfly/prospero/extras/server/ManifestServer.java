@@ -0,0 +1,348 @@
+package org.wildfly.prospero.extras.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.ChannelSession;
+import org.wildfly.channel.VersionResult;
+import org.wildfly.channel.maven.VersionResolverFactory;
+import org.wildfly.prospero.extras.ProsperoExtras;
+import org.wildfly.prospero.extras.manifest.ManifestOperations;
+import org.wildfly.prospero.extras.manifest.ManifestParseCache;
+import org.wildfly.prospero.extras.manifest.diff.DiffWriter;
+import org.wildfly.prospero.extras.manifest.diff.ManifestsDiffCommand;
+import org.wildfly.prospero.extras.manifest.merge.VersionMergeStrategy;
+import org.wildfly.prospero.extras.shared.CacheDirectory;
+import org.wildfly.prospero.extras.shared.MavenSessionProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP server answering manifest operations and channel queries.
+ *
+ * The server listens only on the loopback address. Parsed manifests and channel sessions are cached between requests
+ * and reloaded if the files they were read from change. Channel sessions are also recreated after a time-to-live, so
+ * that versions published in the meantime are found. All requests are {@code GET}s with the arguments passed as
+ * query parameters, the file paths have to be absolute, except for {@code /shutdown} which has to be a {@code POST}.
+ * The responses are plain text, the same as the output of the matching command.
+ *
+ * Every request has to include the token generated at start in the {@value #TOKEN_HEADER} header. The token is written
+ * to a file readable only by the user running the server, so other local users and web pages sending cross-site
+ * requests to the loopback address cannot use the server.
+ */
+class ManifestServer {
+
+    // not 8787, the launcher script binds the debugger to it when DEBUG is set
+    static final int DEFAULT_PORT = 8686;
+    static final String TOKEN_HEADER = "X-Prospero-Extras-Token";
+
+    private final ManifestOperations operations = ProsperoExtras.manifestOperations();
+    private final FileCache<ChannelManifest> manifests;
+    private final FileCache<ChannelSession> channelSessions;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final String token = generateToken();
+    private volatile Path tokenFile;
+
+    /**
+     * @param channelTtlMillis - time after which cached channel sessions are recreated, {@code 0} to keep them until the
+     *                         channel file changes
+     */
+    ManifestServer(int port, int threads, int cacheSize, long channelTtlMillis) throws IOException {
+        this.manifests = new FileCache<>(cacheSize, ManifestParseCache.getInstance()::from);
+        this.channelSessions = new FileCache<>(cacheSize, channelTtlMillis, ManifestServer::createChannelSession);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+
+        server.createContext("/manifest-merge", e -> handle(e, "GET", this::merge));
+        server.createContext("/manifest-subtract", e -> handle(e, "GET", this::subtract));
+        server.createContext("/manifest-diff", e -> handle(e, "GET", this::diff));
+        server.createContext("/channel/query-version", e -> handle(e, "GET", this::queryVersion));
+        server.createContext("/status", e -> handle(e, "GET", params -> getStatus()));
+        server.createContext("/shutdown", e -> {
+            if (handle(e, "POST", params -> "Stopping the server" + System.lineSeparator())) {
+                // stop from a different thread, HttpServer#stop waits for the running exchanges to finish
+                new Thread(this::stop).start();
+            }
+        });
+    }
+
+    /**
+     * Writes the access token to {@code tokenFile} and starts accepting requests.
+     */
+    void start(Path tokenFile) throws IOException {
+        writeToken(tokenFile, token);
+        this.tokenFile = tokenFile;
+        server.start();
+    }
+
+    void stop() {
+        server.stop(1);
+        executor.shutdownNow();
+        final Path file = tokenFile;
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("WARNING: Unable to remove the server token " + file + ": " + e.getMessage());
+            }
+        }
+        stopped.countDown();
+    }
+
+    void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private String merge(Map<String, List<String>> params) throws Exception {
+        final List<ChannelManifest> inputs = new ArrayList<>();
+        for (String path : requireAll(params, "manifest", 2)) {
+            inputs.add(manifests.get(Paths.get(path)));
+        }
+        final String mode = getOptional(params, "mode");
+        final VersionMergeStrategy.Strategies strategy = mode == null
+                ? VersionMergeStrategy.Strategies.LATEST
+                : VersionMergeStrategy.Strategies.valueOf(mode.toUpperCase());
+
+        final String name = getOptional(params, "name");
+        // the same default as the manifest-merge command
+        final ChannelManifest merged = operations.merge(inputs, strategy,
+                name == null ? "merged-manifest" : name, getOptional(params, "id"));
+        return ChannelManifestMapper.toYaml(merged);
+    }
+
+    private String subtract(Map<String, List<String>> params) throws Exception {
+        final List<String> paths = requireAll(params, "manifest", 2);
+        if (paths.size() != 2) {
+            throw new IllegalArgumentException("Exactly two manifests are required");
+        }
+        final String exclude = getOptional(params, "exclude");
+        final List<String> exclusions = exclude == null ? Collections.emptyList() : Arrays.asList(exclude.split(","));
+
+        final ChannelManifest result = operations.subtract(manifests.get(Paths.get(paths.get(0))),
+                manifests.get(Paths.get(paths.get(1))), exclusions);
+        return ChannelManifestMapper.toYaml(result);
+    }
+
+    private String diff(Map<String, List<String>> params) throws Exception {
+        final List<String> paths = requireAll(params, "manifest", 2);
+        if (paths.size() != 2) {
+            throw new IllegalArgumentException("Exactly two manifests are required");
+        }
+
+        final String format = getOptional(params, "format");
+        final DiffWriter.Format diffFormat = format == null
+                ? DiffWriter.Format.TEXT
+                : DiffWriter.Format.valueOf(format.toUpperCase());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8)) {
+            final DiffWriter writer = DiffWriter.create(diffFormat, printStream);
+            ManifestsDiffCommand.manifestDiff(manifests.get(Paths.get(paths.get(0))),
+                    manifests.get(Paths.get(paths.get(1))), writer);
+            writer.finish();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String queryVersion(Map<String, List<String>> params) throws Exception {
+        final Path channel = Paths.get(require(params, "channel"));
+        final String groupId = require(params, "groupId");
+        final String artifactId = require(params, "artifactId");
+        final ChannelSession session = channelSessions.get(channel);
+
+        final VersionResult version;
+        // the channel session is not thread safe, but still cheaper to share than to recreate
+        synchronized (session) {
+            version = session.findLatestMavenArtifactVersion(groupId, artifactId, null, null, null);
+        }
+        if (version == null) {
+            throw new NotFoundException(String.format("No version of artifact %s:%s found in the channel.", groupId, artifactId));
+        }
+        return version.getVersion() + System.lineSeparator();
+    }
+
+    private String getStatus() {
+        return String.format("manifests: %s%nchannels: %s%n", manifests.getStats(), channelSessions.getStats());
+    }
+
+    private static ChannelSession createChannelSession(Path channelFile) throws Exception {
+        final MavenSessionProvider sessionProvider = MavenSessionProvider.getInstance();
+        // the resolver records checked metadata in the session data and cache, a shared session would never see
+        // versions published after the first query
+        final DefaultRepositorySystemSession session = sessionProvider.newSession();
+        session.setData(new DefaultSessionData());
+        session.setCache(new DefaultRepositoryCache());
+        session.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS);
+        final VersionResolverFactory factory = new VersionResolverFactory(sessionProvider.getRepositorySystem(), session);
+        return new ChannelSession(List.of(ChannelMapper.from(channelFile.toUri().toURL())), factory);
+    }
+
+    /**
+     * @return - {@code true} if the request was processed successfully
+     */
+    private boolean handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        int status;
+        String body;
+        try {
+            if (!isAuthorized(exchange)) {
+                status = 403;
+                body = "Missing or invalid " + TOKEN_HEADER + " header";
+            } else if (!method.equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = "Only " + method + " requests are supported";
+                exchange.getResponseHeaders().set("Allow", method);
+            } else {
+                body = handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+                status = 200;
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = e.getMessage();
+        } catch (NoSuchFileException e) {
+            status = 400;
+            body = "File not found: " + e.getFile();
+        } catch (NotFoundException e) {
+            status = 404;
+            body = e.getMessage();
+        } catch (Exception e) {
+            status = 500;
+            body = "Unable to process the request: " + e;
+        }
+
+        final byte[] bytes = (body == null ? "" : body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+        return status == 200;
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        final String value = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        return value != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return - the file holding the token of a server listening on {@code port}, unless a different file was chosen
+     */
+    static Path defaultTokenFile(int port) {
+        return CacheDirectory.resolve("server-" + port + ".token");
+    }
+
+    static String readToken(Path tokenFile) throws IOException {
+        return Files.readString(tokenFile, StandardCharsets.UTF_8).trim();
+    }
+
+    private static void writeToken(Path tokenFile, String token) throws IOException {
+        final Path dir = tokenFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        // temporary files are readable only by their owner
+        final Path tempFile = Files.createTempFile(dir, tokenFile.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tempFile, token, StandardCharsets.UTF_8);
+            try {
+                Files.move(tempFile, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, tokenFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static String generateToken() {
+        final byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    static Map<String, List<String>> parseQuery(String query) {
+        final Map<String, List<String>> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String param : query.split("&")) {
+            final int idx = param.indexOf('=');
+            final String key = URLDecoder.decode(idx < 0 ? param : param.substring(0, idx), StandardCharsets.UTF_8);
+            final String value = idx < 0 ? "" : URLDecoder.decode(param.substring(idx + 1), StandardCharsets.UTF_8);
+            params.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+
+    private static String require(Map<String, List<String>> params, String name) {
+        final String value = getOptional(params, name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required parameter: " + name);
+        }
+        return value;
+    }
+
+    private static List<String> requireAll(Map<String, List<String>> params, String name, int min) {
+        final List<String> values = params.getOrDefault(name, Collections.emptyList()).stream()
+                .filter(v -> !v.isEmpty())
+                .collect(Collectors.toList());
+        if (values.size() < min) {
+            throw new IllegalArgumentException(String.format("At least %d [%s] parameters are required", min, name));
+        }
+        return values;
+    }
+
+    private static String getOptional(Map<String, List<String>> params, String name) {
+        final List<String> values = params.get(name);
+        if (values == null || values.isEmpty() || values.get(0).isEmpty()) {
+            return null;
+        }
+        return values.get(0);
+    }
+
+    private interface Handler {
+        String handle(Map<String, List<String>> params) throws Exception;
+    }
+
+    private static class NotFoundException extends Exception {
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.wildfly.prospero.extras.server;
+
+import org.wildfly.prospero.extras.ReturnCodes;
+import org.wildfly.prospero.extras.shared.CommandWithHelp;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a long-running server answering manifest operations and channel queries.
+ *
+ * Keeping the process running avoids paying for JVM startup, Maven bootstrap and manifest parsing on every invocation.
+ * The server is stopped by the {@code client shutdown} command or by terminating the process. Clients authenticate with
+ * a token the server writes to a file readable only by the current user.
+ */
+@CommandLine.Command(name = "server")
+public class ServerCommand extends CommandWithHelp {
+
+    @CommandLine.Option(names = {"--port"})
+    int port = ManifestServer.DEFAULT_PORT;
+
+    @CommandLine.Option(names = {"--threads"})
+    int threads = 4;
+
+    @CommandLine.Option(names = {"--cache-size"})
+    int cacheSize = 100;
+
+    @CommandLine.Option(names = {"--channel-ttl"})
+    int channelTtl = 60;
+
+    @CommandLine.Option(names = {"--token-file"})
+    Path tokenFile;
+
+    @Override
+    public Integer call() throws Exception {
+        if (threads < 1 || cacheSize < 1) {
+            System.err.println("The number of threads and the cache size have to be positive.");
+            return ReturnCodes.INVALID_ARGUMENTS;
+        }
+        if (channelTtl < 0) {
+            System.err.println("The channel time-to-live cannot be negative.");
+            return ReturnCodes.INVALID_ARGUMENTS;
+        }
+
+        final ManifestServer server = new ManifestServer(port, threads, cacheSize, TimeUnit.SECONDS.toMillis(channelTtl));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        final Path token = tokenFile != null ? tokenFile : ManifestServer.defaultTokenFile(server.getPort());
+        server.start(token);
+        System.out.printf("Server listening on 127.0.0.1:%d, access token written to %s%n", server.getPort(), token);
+
+        server.awaitStop();
+        return ReturnCodes.SUCCESS;
+    }
+}
@@ -0,0 +1,34 @@
+package org.wildfly.prospero.extras.shared;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Location of the files cached between invocations of the tool.
+ *
+ * Defaults to {@code $XDG_CACHE_HOME/prospero-extras} or {@code ~/.cache/prospero-extras} and can be overridden using
+ * the {@code wildfly.prospero.extras.cache_dir} system property.
+ */
+public final class CacheDirectory {
+
+    public static final String CACHE_DIR_PROPERTY = "wildfly.prospero.extras.cache_dir";
+
+    private CacheDirectory() {
+    }
+
+    public static Path get() {
+        final String override = System.getProperty(CACHE_DIR_PROPERTY);
+        if (override != null && !override.isBlank()) {
+            return Paths.get(override);
+        }
+        final String xdgCache = System.getenv("XDG_CACHE_HOME");
+        if (xdgCache != null && !xdgCache.isBlank()) {
+            return Paths.get(xdgCache, "prospero-extras");
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "prospero-extras");
+    }
+
+    public static Path resolve(String name) {
+        return get().resolve(name);
+    }
+}
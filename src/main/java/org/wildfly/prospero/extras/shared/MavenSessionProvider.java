@@ -0,0 +1,165 @@
+package org.wildfly.prospero.extras.shared;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
+import org.jboss.galleon.ProvisioningException;
+import org.wildfly.prospero.api.MavenOptions;
+import org.wildfly.prospero.wfchannel.MavenSessionManager;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Provides a repository system and session shared by all the commands.
+ *
+ * Bootstrapping the repository system is expensive, so it is created only once, on the first use. The configuration can
+ * be changed using {@link #configure(Config)} before that, or with the {@code wildfly.prospero.maven.*} system
+ * properties. The shared session must not be modified - callers needing different settings should use
+ * {@link #newSession()}.
+ */
+public final class MavenSessionProvider {
+
+    private static final Object LOCK = new Object();
+    private static Config config = new Config();
+    private static volatile MavenSessionProvider instance;
+
+    private final RepositorySystem system;
+    private final DefaultRepositorySystemSession session;
+    private final TransferListener transferListener;
+
+    private MavenSessionProvider(Config config) throws ProvisioningException {
+        final MavenOptions.Builder options = MavenOptions.builder()
+                .setOffline(config.offline);
+        if (config.localRepository != null) {
+            options.setLocalCachePath(config.localRepository);
+        }
+        final MavenSessionManager msm = new MavenSessionManager(options.build());
+        system = msm.newRepositorySystem();
+        session = msm.newRepositorySystemSession(system);
+        if (config.checksumPolicy != null) {
+            session.setChecksumPolicy(config.checksumPolicy);
+        }
+        transferListener = config.transferListener;
+        if (transferListener != null) {
+            session.setTransferListener(transferListener);
+        }
+    }
+
+    /**
+     * Sets the configuration used to create the session.
+     *
+     * @throws IllegalStateException - if the session was already created
+     */
+    public static void configure(Config config) {
+        synchronized (LOCK) {
+            if (instance != null) {
+                throw new IllegalStateException("The Maven session has already been created.");
+            }
+            MavenSessionProvider.config = config;
+        }
+    }
+
+    public static MavenSessionProvider getInstance() throws ProvisioningException {
+        MavenSessionProvider provider = instance;
+        if (provider == null) {
+            synchronized (LOCK) {
+                provider = instance;
+                if (provider == null) {
+                    provider = new MavenSessionProvider(config);
+                    instance = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    /**
+     * Drops the created session and the configuration, so that tests can start from a known state.
+     */
+    static void reset() {
+        synchronized (LOCK) {
+            instance = null;
+            config = new Config();
+        }
+    }
+
+    public RepositorySystem getRepositorySystem() {
+        return system;
+    }
+
+    /**
+     * @return - the shared session, safe to use from multiple threads
+     */
+    public DefaultRepositorySystemSession getSession() {
+        return session;
+    }
+
+    /**
+     * @return - a copy of the shared session that can be modified. The copy still shares the caches with other sessions.
+     */
+    public DefaultRepositorySystemSession newSession() {
+        return new DefaultRepositorySystemSession(session);
+    }
+
+    /**
+     * @param listener - additional listener notified about the transfers of the new session
+     * @return - a copy of the shared session notifying both the configured transfer listener and {@code listener}
+     */
+    public DefaultRepositorySystemSession newSession(TransferListener listener) {
+        return newSession().setTransferListener(ChainedTransferListener.newInstance(transferListener, listener));
+    }
+
+    public static Config config() {
+        return new Config();
+    }
+
+    public static final class Config {
+        private Path localRepository = pathProperty("wildfly.prospero.maven.local_repo");
+        private boolean offline = Boolean.getBoolean("wildfly.prospero.maven.offline");
+        private String checksumPolicy = System.getProperty("wildfly.prospero.maven.checksum_policy");
+        private TransferListener transferListener;
+
+        private Config() {
+        }
+
+        /**
+         * @param localRepository - path of the local Maven cache, {@code null} to use the default location
+         */
+        public Config setLocalRepository(Path localRepository) {
+            this.localRepository = localRepository;
+            return this;
+        }
+
+        public Config setOffline(boolean offline) {
+            this.offline = offline;
+            return this;
+        }
+
+        /**
+         * @param checksumPolicy - one of the {@code RepositoryPolicy.CHECKSUM_POLICY_*} values
+         */
+        public Config setChecksumPolicy(String checksumPolicy) {
+            if (checksumPolicy != null
+                    && !RepositoryPolicy.CHECKSUM_POLICY_FAIL.equals(checksumPolicy)
+                    && !RepositoryPolicy.CHECKSUM_POLICY_WARN.equals(checksumPolicy)
+                    && !RepositoryPolicy.CHECKSUM_POLICY_IGNORE.equals(checksumPolicy)) {
+                throw new IllegalArgumentException("Unknown checksum policy: " + checksumPolicy);
+            }
+            this.checksumPolicy = checksumPolicy;
+            return this;
+        }
+
+        public Config setTransferListener(TransferListener transferListener) {
+            this.transferListener = transferListener;
+            return this;
+        }
+
+        private static Path pathProperty(String name) {
+            final String value = System.getProperty(name);
+            return value == null || value.isBlank() ? null : Paths.get(value);
+        }
+    }
+}
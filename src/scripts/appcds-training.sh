@@ -0,0 +1,29 @@
+#!/bin/bash
+# Creates a dynamic AppCDS archive of the classes loaded by manifest-merge and manifest-diff.
+#
+# Usage: appcds-training.sh <shaded jar> <archive>
+set -e
+
+JAR=$1
+ARCHIVE=$2
+SCRIPT_DIR=$(dirname "$(realpath "$0")")
+source "${SCRIPT_DIR}/manifests.sh"
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "${WORK_DIR}"' EXIT
+
+generate_manifest "${WORK_DIR}/manifest-one.yaml" 2000 1
+generate_manifest "${WORK_DIR}/manifest-two.yaml" 2000 2
+cat > "${WORK_DIR}/training.txt" <<SCRIPT
+manifest-merge ${WORK_DIR}/manifest-one.yaml ${WORK_DIR}/manifest-two.yaml
+manifest-merge --mode=FIRST ${WORK_DIR}/manifest-one.yaml ${WORK_DIR}/manifest-two.yaml
+manifest-diff ${WORK_DIR}/manifest-one.yaml ${WORK_DIR}/manifest-two.yaml
+manifest-subtract ${WORK_DIR}/manifest-one.yaml ${WORK_DIR}/manifest-two.yaml
+SCRIPT
+
+rm -f "${ARCHIVE}"
+# the batch command runs all the training commands in one JVM, so the archive contains classes used by each of them.
+# The caches are written to the work directory, not to the home of the user running the build.
+java -XX:ArchiveClassesAtExit="${ARCHIVE}" -Dwildfly.prospero.extras.cache_dir="${WORK_DIR}/cache" \
+  -jar "${JAR}" batch "${WORK_DIR}/training.txt" > /dev/null
+echo "Created AppCDS archive ${ARCHIVE}"
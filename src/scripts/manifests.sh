@@ -0,0 +1,23 @@
+# Generates manifests used by the AppCDS training run and the startup benchmark.
+#
+# generate_manifest <file> <number of streams> <version>
+generate_manifest() {
+  local file=$1
+  local streams=$2
+  local version=$3
+  {
+    echo 'schemaVersion: "1.0.0"'
+    echo "name: \"generated-${version}\""
+    echo 'streams:'
+    for ((i = 0; i < streams; i++)); do
+      echo "  - groupId: \"org.example.group$((i % 50))\""
+      echo "    artifactId: \"artifact-${i}\""
+      # every third stream has a different version in each manifest
+      if ((i % 3 == 0)); then
+        echo "    version: \"${version}.${i}.Final\""
+      else
+        echo "    version: \"1.0.${i}.Final\""
+      fi
+    done
+  } > "${file}"
+}
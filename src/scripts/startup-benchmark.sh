@@ -0,0 +1,65 @@
+#!/bin/bash
+# Measures the wall-clock time of manifest-diff and manifest-merge for each available distribution:
+#  - the shaded jar
+#  - the shaded jar with the AppCDS archive (built with -Pappcds)
+#  - the native executable (built with -Pnative)
+#
+# The same manifests are used in every run, so the parsed manifest cache is disabled to measure parsing as well.
+#
+# Usage: startup-benchmark.sh [iterations] [number of streams]
+set -e
+
+ITERATIONS=${1:-10}
+STREAMS=${2:-2000}
+SCRIPT_DIR=$(dirname "$(realpath "$0")")
+TARGET_DIR="${SCRIPT_DIR}/../../target"
+NO_CACHE="-Dwildfly.prospero.manifest.cache=false"
+source "${SCRIPT_DIR}/manifests.sh"
+
+JAR=$(ls "${TARGET_DIR}"/prospero-extras-*-shaded.jar 2>/dev/null | head -n 1)
+ARCHIVE="${TARGET_DIR}/prospero-extras.jsa"
+NATIVE="${TARGET_DIR}/prospero-extras-native"
+if [ -z "${JAR}" ]; then
+  echo "Shaded jar not found in ${TARGET_DIR}, build the project first." >&2
+  exit 1
+fi
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "${WORK_DIR}"' EXIT
+generate_manifest "${WORK_DIR}/manifest-one.yaml" "${STREAMS}" 1
+generate_manifest "${WORK_DIR}/manifest-two.yaml" "${STREAMS}" 2
+
+# measure <label> <command...>
+measure() {
+  local label=$1
+  shift
+  local total=0
+  for ((i = 0; i < ITERATIONS; i++)); do
+    local start=$(date +%s%N)
+    "$@" > /dev/null
+    local end=$(date +%s%N)
+    total=$((total + (end - start) / 1000000))
+  done
+  printf "%-40s %6d ms\n" "${label}" $((total / ITERATIONS))
+}
+
+run() {
+  local label=$1
+  shift
+  measure "${label} manifest-diff" "$@" manifest-diff "${WORK_DIR}/manifest-one.yaml" "${WORK_DIR}/manifest-two.yaml"
+  measure "${label} manifest-merge" "$@" manifest-merge "${WORK_DIR}/manifest-one.yaml" "${WORK_DIR}/manifest-two.yaml"
+}
+
+echo "Average of ${ITERATIONS} runs, manifests with ${STREAMS} streams"
+run "jar" java -Xshare:auto "${NO_CACHE}" -jar "${JAR}"
+if [ -f "${ARCHIVE}" ]; then
+  run "jar + AppCDS" java -XX:SharedArchiveFile="${ARCHIVE}" -Xshare:auto "${NO_CACHE}" -jar "${JAR}"
+else
+  echo "AppCDS archive not found, build with -Pappcds to include it"
+fi
+if [ -x "${NATIVE}" ]; then
+  # native executables accept system properties on the command line as well
+  run "native" "${NATIVE}" "${NO_CACHE}"
+else
+  echo "Native executable not found, build with -Pnative to include it"
+fi
@@ -0,0 +1,117 @@
+package org.wildfly.prospero.extras.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.prospero.extras.ReturnCodes;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchCommandTest {
+
+    @TempDir
+    Path temp;
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void tokenizeQuotedArguments() {
+        assertThat(BatchCommand.tokenize("manifest-merge  a.yaml 'with space.yaml' \"quoted \\\"name\\\"\" --id=x\\ y"))
+                .containsExactly("manifest-merge", "a.yaml", "with space.yaml", "quoted \"name\"", "--id=x y");
+        assertThat(BatchCommand.tokenize("cmd ''")).containsExactly("cmd", "");
+    }
+
+    @Test
+    public void rejectUnclosedQuote() {
+        assertThatThrownBy(() -> BatchCommand.parse(new BufferedReader(new StringReader("# comment\n\ncmd 'unclosed"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 3");
+    }
+
+    @Test
+    public void executeAllCommands() throws Exception {
+        final BatchCommand batch = batch("# comment\nok one\n\nfail two\nok three");
+
+        assertThat(batch.call()).isEqualTo(ReturnCodes.ERROR);
+        assertThat(executed).containsExactly("one", "two", "three");
+    }
+
+    @Test
+    public void stopAfterFailureWithFailFast() throws Exception {
+        final BatchCommand batch = batch("ok one\nfail two\nok three");
+        batch.failFast = true;
+
+        assertThat(batch.call()).isEqualTo(ReturnCodes.ERROR);
+        assertThat(executed).containsExactly("one", "two");
+    }
+
+    @Test
+    public void executeInParallel() throws Exception {
+        final BatchCommand batch = batch("ok one\nok two\nok three\nok four");
+        batch.threads = 3;
+
+        assertThat(batch.call()).isEqualTo(ReturnCodes.SUCCESS);
+        assertThat(executed.stream().sorted().collect(Collectors.toList())).containsExactly("four", "one", "three", "two");
+    }
+
+    @Test
+    public void rejectNestedBatch() throws Exception {
+        final BatchCommand batch = batch("batch other-script");
+
+        assertThat(batch.call()).isEqualTo(ReturnCodes.ERROR);
+        assertThat(executed).isEmpty();
+    }
+
+    @Test
+    public void standardOutputContainsOnlyCommandOutput() throws Exception {
+        final BatchCommand batch = batch("ok one\nfail two");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+        try {
+            batch.call();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList()))
+                .containsExactly("output of one", "output of two");
+    }
+
+    private BatchCommand batch(String script) throws Exception {
+        final Path scriptFile = temp.resolve("script.txt");
+        Files.writeString(scriptFile, script);
+        final BatchCommand batch = new BatchCommand(() -> new CommandLine(new TestCommand()));
+        batch.script = scriptFile;
+        return batch;
+    }
+
+    @CommandLine.Command(name = "test")
+    class TestCommand implements Callable<Integer> {
+        @CommandLine.Parameters(index = "0")
+        String result;
+
+        @CommandLine.Parameters(index = "1")
+        String name;
+
+        @Override
+        public Integer call() {
+            executed.add(name);
+            System.out.println("output of " + name);
+            return "ok".equals(result) ? ReturnCodes.SUCCESS : ReturnCodes.ERROR;
+        }
+    }
+}
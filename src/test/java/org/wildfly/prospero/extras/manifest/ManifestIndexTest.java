@@ -0,0 +1,43 @@
+package org.wildfly.prospero.extras.manifest;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.channel.Stream;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ManifestIndexTest {
+
+    private final ManifestIndex index = ManifestIndex.of(List.of(
+            new Stream("org.foo", "bar", "1.0.0"),
+            new Stream("org.foo", "*", "2.0.0"),
+            new Stream("org.baz", "qux", "3.0.0")));
+
+    @Test
+    public void findExactMatchBeforeWildcard() {
+        assertThat(index.findStreamFor("org.foo", "bar")).contains(new Stream("org.foo", "bar", "1.0.0"));
+        assertThat(index.findStreamFor("org.foo", "other")).contains(new Stream("org.foo", "*", "2.0.0"));
+        assertThat(index.findStreamFor("org.baz", "other")).isEmpty();
+        assertThat(index.findStreamFor("org.unknown", "bar")).isEmpty();
+    }
+
+    @Test
+    public void getIgnoresWildcards() {
+        assertThat(index.get("org.foo", "bar")).isEqualTo(new Stream("org.foo", "bar", "1.0.0"));
+        assertThat(index.get("org.foo", "other")).isNull();
+        assertThat(index.contains("org.baz", "qux")).isTrue();
+        assertThat(index.contains("org.baz", "other")).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void firstDuplicateStreamWins() {
+        final ManifestIndex duplicates = ManifestIndex.of(List.of(
+                new Stream("org.foo", "bar", "1.0.0"),
+                new Stream("org.foo", "bar", "2.0.0")));
+
+        assertThat(duplicates.get("org.foo", "bar").getVersion()).isEqualTo("1.0.0");
+        assertThat(duplicates.size()).isEqualTo(1);
+    }
+}
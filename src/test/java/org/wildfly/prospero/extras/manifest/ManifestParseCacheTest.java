@@ -0,0 +1,116 @@
+package org.wildfly.prospero.extras.manifest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ManifestRequirement;
+import org.wildfly.channel.MavenCoordinate;
+import org.wildfly.channel.Stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ManifestParseCacheTest {
+
+    @TempDir
+    Path temp;
+
+    private final List<String> parsed = new ArrayList<>();
+
+    @Test
+    public void binaryFormatRoundTrip() throws Exception {
+        final ChannelManifest manifest = new ChannelManifest("1.0.0", "name", "id", "multi\nline description",
+                List.of(new ManifestRequirement("req", new MavenCoordinate("org.req", "req-manifest", "1.0"))),
+                List.of(new Stream("org.foo", "bar", "1.0.0.Final"),
+                        new Stream("org.foo", "baz", Pattern.compile("1\\.0\\..*")),
+                        new Stream("org.foo.other", "*", "2.0")));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ManifestParseCache.write(manifest, out);
+        final ChannelManifest read = ManifestParseCache.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(read.getSchemaVersion()).isEqualTo("1.0.0");
+        assertThat(read.getName()).isEqualTo("name");
+        assertThat(read.getId()).isEqualTo("id");
+        assertThat(read.getDescription()).isEqualTo("multi\nline description");
+        assertThat(read.getManifestRequirements().get(0).getId()).isEqualTo("req");
+        assertThat(read.getManifestRequirements().get(0).getMavenCoordinate().getArtifactId()).isEqualTo("req-manifest");
+        assertThat(describe(read)).containsExactly(
+                "org.foo:bar:1.0.0.Final", "org.foo:baz:1\\.0\\..*", "org.foo.other:*:2.0");
+    }
+
+    @Test
+    public void skipParsingOfUnchangedManifest() throws Exception {
+        final ManifestParseCache cache = new ManifestParseCache(temp.resolve("cache"), 10, this::parse);
+        final Path manifest = temp.resolve("manifest.yaml");
+        Files.writeString(manifest, "org.foo:bar:1.0");
+
+        assertThat(describe(cache.from(manifest))).containsExactly("org.foo:bar:1.0");
+        assertThat(describe(cache.from(manifest))).containsExactly("org.foo:bar:1.0");
+        assertThat(parsed).containsExactly("org.foo:bar:1.0");
+
+        Files.writeString(manifest, "org.foo:bar:1.1");
+        assertThat(describe(cache.from(manifest))).containsExactly("org.foo:bar:1.1");
+        assertThat(parsed).containsExactly("org.foo:bar:1.0", "org.foo:bar:1.1");
+    }
+
+    @Test
+    public void reparseInvalidCacheEntry() throws Exception {
+        final Path cacheDir = temp.resolve("cache");
+        final ManifestParseCache cache = new ManifestParseCache(cacheDir, 10, this::parse);
+        final Path manifest = temp.resolve("manifest.yaml");
+        Files.writeString(manifest, "org.foo:bar:1.0");
+        cache.from(manifest);
+
+        try (java.util.stream.Stream<Path> entries = Files.list(cacheDir)) {
+            for (Path entry : entries.collect(Collectors.toList())) {
+                Files.write(entry, new byte[]{1, 2, 3});
+            }
+        }
+
+        assertThat(describe(cache.from(manifest))).containsExactly("org.foo:bar:1.0");
+        assertThat(parsed).containsExactly("org.foo:bar:1.0", "org.foo:bar:1.0");
+    }
+
+    @Test
+    public void dropLeastRecentlyUsedEntries() throws Exception {
+        final Path cacheDir = temp.resolve("cache");
+        final ManifestParseCache cache = new ManifestParseCache(cacheDir, 2, this::parse);
+        for (int i = 0; i < 4; i++) {
+            final Path manifest = temp.resolve("manifest" + i + ".yaml");
+            Files.writeString(manifest, "org.foo:bar:" + i);
+            cache.from(manifest);
+        }
+
+        try (java.util.stream.Stream<Path> entries = Files.list(cacheDir)) {
+            assertThat(entries.count()).isEqualTo(2L);
+        }
+    }
+
+    /**
+     * Parses a simplified manifest consisting of {@code groupId:artifactId:version} lines.
+     */
+    private ChannelManifest parse(String content) {
+        parsed.add(content);
+        final List<Stream> streams = content.lines()
+                .map(l -> l.split(":"))
+                .map(p -> new Stream(p[0], p[1], p[2]))
+                .collect(Collectors.toList());
+        return new ChannelManifest("1.0.0", null, null, null, List.of(), streams);
+    }
+
+    private static List<String> describe(ChannelManifest manifest) {
+        return manifest.getStreams().stream()
+                .map(s -> s.getGroupId() + ":" + s.getArtifactId() + ":"
+                        + (s.getVersion() != null ? s.getVersion() : s.getVersionPattern().pattern()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package org.wildfly.prospero.extras.manifest.diff;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ManifestsDiffCommandTest {
+
+    @Test
+    public void changesAreOrderedByKey() {
+        final ChannelManifest one = getChannelManifest(
+                new Stream("org.foo", "b", "1.0"),
+                new Stream("org.foo", "a", "1.0"),
+                new Stream("org.foo-bar", "c", "1.0"));
+        final ChannelManifest two = getChannelManifest(
+                new Stream("org.foo.x", "d", "2.0"),
+                new Stream("org.foo-bar", "c", "1.0"),
+                new Stream("org.foo", "a", "1.1"));
+
+        final List<String> changes = ManifestsDiffCommand.manifestDiff(one, two).stream()
+                .map(c -> String.format("%s %s %s %s", c.getArtifactName(), c.getStatus(), c.getOldVersion(), c.getNewVersion()))
+                .collect(Collectors.toList());
+
+        // the same order as sorting "groupId:artifactId" strings
+        assertThat(changes).containsExactly(
+                "org.foo.x:d INSTALLED null 2.0",
+                "org.foo:a UPDATED 1.0 1.1",
+                "org.foo:b REMOVED 1.0 null");
+    }
+
+    @Test
+    public void compareKeysAsStrings() {
+        final List<Stream> streams = Arrays.asList(
+                new Stream("org.foo", "a", "1.0"),
+                new Stream("org.foo", "a-b", "1.0"),
+                new Stream("org.foo-bar", "a", "1.0"),
+                new Stream("org.foo.bar", "a", "1.0"),
+                new Stream("org.fo", "o:a", "1.0"),
+                new Stream("org", "foo", "1.0"));
+
+        for (Stream s1 : streams) {
+            for (Stream s2 : streams) {
+                final String key1 = s1.getGroupId() + ":" + s1.getArtifactId();
+                final String key2 = s2.getGroupId() + ":" + s2.getArtifactId();
+                assertThat(Integer.signum(ManifestsDiffCommand.compareKeys(s1, s2)))
+                        .isEqualTo(Integer.signum(key1.compareTo(key2)));
+            }
+        }
+    }
+
+    @Test
+    public void writeJsonLines() {
+        final String output = diff(DiffWriter.Format.JSONL,
+                getChannelManifest(new Stream("org.foo", "a", "1.0"), new Stream("org.foo", "b", "1.0")),
+                getChannelManifest(new Stream("org.foo", "a", "1.\"1")));
+
+        assertThat(output.lines().collect(Collectors.toList())).containsExactly(
+                "{\"artifact\":\"org.foo:a\",\"status\":\"UPDATED\",\"oldVersion\":\"1.0\",\"newVersion\":\"1.\\\"1\"}",
+                "{\"artifact\":\"org.foo:b\",\"status\":\"REMOVED\",\"oldVersion\":\"1.0\",\"newVersion\":null}");
+    }
+
+    @Test
+    public void writeYaml() {
+        final String output = diff(DiffWriter.Format.YAML,
+                getChannelManifest(),
+                getChannelManifest(new Stream("org.foo", "a", "1.0")));
+
+        assertThat(output.lines().collect(Collectors.toList())).containsExactly(
+                "- artifact: \"org.foo:a\"",
+                "  status: INSTALLED",
+                "  oldVersion: null",
+                "  newVersion: \"1.0\"");
+    }
+
+    @Test
+    public void writeEmptyYaml() {
+        final ChannelManifest manifest = getChannelManifest(new Stream("org.foo", "a", "1.0"));
+
+        assertThat(diff(DiffWriter.Format.YAML, manifest, manifest).trim()).isEqualTo("[]");
+    }
+
+    private static String diff(DiffWriter.Format format, ChannelManifest one, ChannelManifest two) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final DiffWriter writer = DiffWriter.create(format, new PrintStream(out, false, StandardCharsets.UTF_8));
+        ManifestsDiffCommand.manifestDiff(one, two, writer);
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ChannelManifest getChannelManifest(Stream... stream) {
+        return new ChannelManifest("", "", "", stream.length == 0 ? Collections.emptyList() : Arrays.asList(stream));
+    }
+}
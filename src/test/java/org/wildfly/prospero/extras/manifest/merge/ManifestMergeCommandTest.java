@@ -45,4 +45,39 @@ class ManifestMergeCommandTest {
                 .isEmpty();
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void mergeMultipleManifests() throws Exception {
+        final ChannelManifest manifestThree = new ChannelManifest(null, null, null, List.of(
+                new Stream("org.test", "test-one", "1.0.1"),
+                new Stream("org.test", "test-two", "2.0.0")));
+        final ChannelManifest manifestFour = new ChannelManifest(null, null, null, List.of(
+                new Stream("org.test", "test-three", "3.0.0")));
+
+        final VersionMergeStrategy strategy = VersionMergeStrategy.Strategies.LATEST;
+        final ChannelManifest merged = ManifestMergeCommand.merge(List.of(MANIFEST_ONE, MANIFEST_TWO, manifestThree, manifestFour),
+                strategy, "merged", "merged-id");
+
+        assertThat(merged.getStreams()).containsOnly(
+                new Stream("org.test", "test-one", "1.1.0"),
+                new Stream("org.test", "test-two", "2.0.0"),
+                new Stream("org.test", "test-three", "3.0.0"));
+        assertThat(merged.getName()).isEqualTo("merged");
+        assertThat(merged.getId()).isEqualTo("merged-id");
+    }
+
+    @Test
+    public void mergeMultipleManifestsLikePairwiseMerge() throws Exception {
+        // removes the stream when merging the second manifest, re-adds it from the third
+        final VersionMergeStrategy strategy = (v1, v2) -> v1 == null ? v2 : null;
+        final ChannelManifest manifestThree = new ChannelManifest(null, null, null, List.of(new Stream("org.test", "test-one", "1.2.0")));
+
+        final ChannelManifest merged = ManifestMergeCommand.merge(List.of(MANIFEST_ONE, MANIFEST_TWO, manifestThree), strategy, null, null);
+        final ChannelManifest pairwise = ManifestMergeCommand.merge(
+                ManifestMergeCommand.merge(MANIFEST_ONE, MANIFEST_TWO, strategy, null, null), manifestThree, strategy, null, null);
+
+        assertThat(merged.getStreams())
+                .containsOnly(new Stream("org.test", "test-one", "1.2.0"))
+                .containsExactlyElementsOf(pairwise.getStreams());
+    }
+}
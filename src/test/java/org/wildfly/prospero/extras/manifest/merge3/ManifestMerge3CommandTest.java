@@ -0,0 +1,96 @@
+package org.wildfly.prospero.extras.manifest.merge3;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.manifest.merge.VersionMergeStrategy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ManifestMerge3CommandTest {
+
+    @Test
+    public void takeNonConflictingChanges() {
+        final ChannelManifest base = manifest(
+                new Stream("org.foo", "unchanged", "1.0"),
+                new Stream("org.foo", "ours-updated", "1.0"),
+                new Stream("org.foo", "theirs-updated", "1.0"),
+                new Stream("org.foo", "ours-removed", "1.0"),
+                new Stream("org.foo", "theirs-removed", "1.0"),
+                new Stream("org.foo", "both-removed", "1.0"),
+                new Stream("org.foo", "both-updated", "1.0"));
+        final ChannelManifest ours = manifest(
+                new Stream("org.foo", "unchanged", "1.0"),
+                new Stream("org.foo", "ours-updated", "1.1"),
+                new Stream("org.foo", "theirs-updated", "1.0"),
+                new Stream("org.foo", "theirs-removed", "1.0"),
+                new Stream("org.foo", "both-updated", "2.0"),
+                new Stream("org.foo", "ours-added", "1.0"));
+        final ChannelManifest theirs = manifest(
+                new Stream("org.foo", "unchanged", "1.0"),
+                new Stream("org.foo", "ours-updated", "1.0"),
+                new Stream("org.foo", "theirs-updated", "1.2"),
+                new Stream("org.foo", "ours-removed", "1.0"),
+                new Stream("org.foo", "both-updated", "2.0"),
+                new Stream("org.bar", "theirs-added", "1.0"));
+
+        final Merge3Result result = ManifestMerge3Command.merge3(base, ours, theirs,
+                VersionMergeStrategy.Strategies.FIRST, "merged", null);
+
+        assertThat(streams(result)).containsExactly(
+                "org.bar:theirs-added:1.0",
+                "org.foo:both-updated:2.0",
+                "org.foo:ours-added:1.0",
+                "org.foo:ours-updated:1.1",
+                "org.foo:theirs-updated:1.2",
+                "org.foo:unchanged:1.0");
+        assertThat(result.hasConflicts()).isFalse();
+    }
+
+    @Test
+    public void resolveConflictingVersionsWithStrategy() {
+        final ChannelManifest base = manifest(new Stream("org.foo", "bar", "1.0"));
+        final ChannelManifest ours = manifest(new Stream("org.foo", "bar", "1.1"));
+        final ChannelManifest theirs = manifest(new Stream("org.foo", "bar", "1.2"));
+
+        final Merge3Result first = ManifestMerge3Command.merge3(base, ours, theirs,
+                VersionMergeStrategy.Strategies.FIRST, null, null);
+        assertThat(streams(first)).containsExactly("org.foo:bar:1.1");
+        assertThat(first.getConflicts().stream().map(Merge3Result.Conflict::toString).collect(Collectors.toList()))
+                .containsExactly("org.foo:bar - base: 1.0, ours: 1.1, theirs: 1.2, resolved: 1.1");
+
+        final Merge3Result latest = ManifestMerge3Command.merge3(base, ours, theirs,
+                VersionMergeStrategy.Strategies.LATEST, null, null);
+        assertThat(streams(latest)).containsExactly("org.foo:bar:1.2");
+    }
+
+    @Test
+    public void keepChangedStreamIfRemovedInOtherManifest() {
+        final ChannelManifest base = manifest(new Stream("org.foo", "bar", "1.0"), new Stream("org.foo", "baz", "1.0"));
+        final ChannelManifest ours = manifest(new Stream("org.foo", "bar", "1.1"));
+        final ChannelManifest theirs = manifest(new Stream("org.foo", "baz", "1.1"));
+
+        final Merge3Result result = ManifestMerge3Command.merge3(base, ours, theirs,
+                VersionMergeStrategy.Strategies.FIRST, null, null);
+
+        assertThat(streams(result)).containsExactly("org.foo:bar:1.1", "org.foo:baz:1.1");
+        assertThat(result.getConflicts().stream().map(Merge3Result.Conflict::toString).collect(Collectors.toList()))
+                .containsExactly(
+                        "org.foo:bar - base: 1.0, ours: 1.1, theirs: <none>, resolved: 1.1",
+                        "org.foo:baz - base: 1.0, ours: <none>, theirs: 1.1, resolved: 1.1");
+    }
+
+    private static List<String> streams(Merge3Result result) {
+        return result.getManifest().getStreams().stream()
+                .map(s -> s.getGroupId() + ":" + s.getArtifactId() + ":" + s.getVersion())
+                .collect(Collectors.toList());
+    }
+
+    private static ChannelManifest manifest(Stream... streams) {
+        return new ChannelManifest("", "", "", Arrays.asList(streams));
+    }
+}
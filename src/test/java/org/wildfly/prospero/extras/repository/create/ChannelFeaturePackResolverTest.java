@@ -0,0 +1,67 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wildfly.channel.Stream;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChannelFeaturePackResolverTest {
+
+    private HttpServer server;
+    private RemoteRepository repository;
+    private final Set<String> requested = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requested.add(exchange.getRequestURI().getPath());
+            // "broken" artifacts simulate an outage of the repository, everything else is missing
+            final int status = exchange.getRequestURI().getPath().contains("/broken/") ? 503 : 404;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        repository = new RemoteRepository.Builder("test", "default",
+                "http://127.0.0.1:" + server.getAddress().getPort()).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void missingZipsAreNotFeaturePacks() throws Exception {
+        final List<String> featurePacks = new ChannelFeaturePackResolver().findFeaturePacks(
+                List.of(new Stream("org.test", "one", "1.0.0"), new Stream("org.test", "two", "1.0.0")),
+                List.of(repository));
+
+        assertThat(featurePacks).isEmpty();
+    }
+
+    @Test
+    public void failWhenStreamCannotBeChecked() {
+        // results of the other tests may be cached, use a different stream
+        final List<Stream> streams = List.of(new Stream("org.test", "three", "1.0.0"),
+                new Stream("org.test", "broken", "1.0.0"));
+
+        assertThatThrownBy(() -> new ChannelFeaturePackResolver().findFeaturePacks(streams, List.of(repository)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unable to check 1 of 2 streams");
+        // the failure doesn't stop the other checks
+        assertThat(requested).contains("/org/test/three/1.0.0/three-1.0.0.zip");
+    }
+}
@@ -0,0 +1,64 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Stream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeaturePackDetectionCacheTest {
+
+    private static final String REPO_URL = "https://repo.test/maven";
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void resultsArePersistedBetweenRuns() throws Exception {
+        final Path cacheFile = temp.resolve("cache").resolve(FeaturePackDetectionCache.CACHE_FILE);
+        final FeaturePackDetectionCache cache = FeaturePackDetectionCache.load(cacheFile);
+        cache.put(new Stream("org.test", "fp", "1.0.0"), REPO_URL, FeaturePackDetectionCache.Result.FEATURE_PACK);
+        cache.put(new Stream("org.test", "zip", "1.0.0"), REPO_URL, FeaturePackDetectionCache.Result.NOT_FEATURE_PACK);
+        cache.put(new Stream("org.test", "jar", "1.0.0"), REPO_URL, FeaturePackDetectionCache.Result.MISSING);
+        cache.save();
+
+        final FeaturePackDetectionCache reloaded = FeaturePackDetectionCache.load(cacheFile);
+        assertThat(reloaded.get(new Stream("org.test", "fp", "1.0.0"), REPO_URL + "/"))
+                .isEqualTo(FeaturePackDetectionCache.Result.FEATURE_PACK);
+        assertThat(reloaded.get(new Stream("org.test", "zip", "1.0.0"), REPO_URL))
+                .isEqualTo(FeaturePackDetectionCache.Result.NOT_FEATURE_PACK);
+        assertThat(reloaded.get(new Stream("org.test", "jar", "1.0.0"), REPO_URL))
+                .isEqualTo(FeaturePackDetectionCache.Result.MISSING);
+        assertThat(reloaded.get(new Stream("org.test", "fp", "1.0.1"), REPO_URL)).isNull();
+        assertThat(reloaded.get(new Stream("org.test", "fp", "1.0.0"), "https://other.test")).isNull();
+    }
+
+    @Test
+    public void snapshotsAreNotCached() throws Exception {
+        final Path cacheFile = temp.resolve(FeaturePackDetectionCache.CACHE_FILE);
+        final FeaturePackDetectionCache cache = FeaturePackDetectionCache.load(cacheFile);
+        cache.put(new Stream("org.test", "fp", "1.0.0-SNAPSHOT"), REPO_URL, FeaturePackDetectionCache.Result.FEATURE_PACK);
+        cache.put(new Stream("org.test", "jar", "1.0.0-SNAPSHOT"), REPO_URL, FeaturePackDetectionCache.Result.MISSING);
+
+        assertThat(cache.get(new Stream("org.test", "fp", "1.0.0-SNAPSHOT"), REPO_URL)).isNull();
+        assertThat(cache.get(new Stream("org.test", "jar", "1.0.0-SNAPSHOT"), REPO_URL)).isNull();
+        cache.save();
+        assertThat(cacheFile).doesNotExist();
+    }
+
+    @Test
+    public void invalidEntriesAreIgnored() throws Exception {
+        final Path cacheFile = temp.resolve(FeaturePackDetectionCache.CACHE_FILE);
+        Files.writeString(cacheFile, "garbage\nUNKNOWN\t1\torg.test:fp:1.0.0\t" + REPO_URL + "\n"
+                + "FEATURE_PACK\t" + System.currentTimeMillis() + "\torg.test:fp:1.0.1\t" + REPO_URL + "\n");
+
+        final FeaturePackDetectionCache cache = FeaturePackDetectionCache.load(cacheFile);
+
+        assertThat(cache.get(new Stream("org.test", "fp", "1.0.0"), REPO_URL)).isNull();
+        assertThat(cache.get(new Stream("org.test", "fp", "1.0.1"), REPO_URL))
+                .isEqualTo(FeaturePackDetectionCache.Result.FEATURE_PACK);
+    }
+}
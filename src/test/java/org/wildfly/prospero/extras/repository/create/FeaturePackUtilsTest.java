@@ -0,0 +1,68 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.manifest.ManifestIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeaturePackUtilsTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void readArtifactsListedInTheManifest() throws Exception {
+        final Path zip = featurePack(
+                "# comment",
+                "org.foo\\:bar=org.foo:bar:1.0.0",
+                "org.foo\\:bar\\:\\:client=org.foo:bar:1.0.0:client",
+                "org.wildcard\\:any=org.wildcard:any:${version.any:1.0.0}::jar",
+                "org.unknown\\:baz=org.unknown:baz:1.0.0",
+                "org.foo\\:undefined=org.foo:undefined:${version.undefined}");
+        final ChannelManifest manifest = new ChannelManifest("", "", "", List.of(
+                new Stream("org.foo", "bar", "2.0.0"),
+                new Stream("org.foo", "*", "3.0.0"),
+                new Stream("org.wildcard", "*", "4.0.0")));
+
+        final Set<Artifact> artifacts = FeaturePackUtils.getArtifactsFromFeaturePackZip(zip.toFile(), ManifestIndex.of(manifest));
+
+        assertThat(artifacts.stream().map(Artifact::toString).collect(Collectors.toSet())).containsExactlyInAnyOrder(
+                "org.foo:bar:jar:2.0.0",
+                "org.foo:bar:jar:client:2.0.0",
+                "org.wildcard:any:jar:4.0.0");
+    }
+
+    @Test
+    public void isFeaturePack() throws Exception {
+        assertThat(FeaturePackUtils.isFeaturePack(featurePack())).isTrue();
+
+        final Path zip = temp.resolve("other.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("readme.txt"));
+        }
+        assertThat(FeaturePackUtils.isFeaturePack(zip)).isFalse();
+    }
+
+    private Path featurePack(String... artifactVersions) throws Exception {
+        final Path zip = temp.resolve("feature-pack.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("feature-pack.xml"));
+            out.putNextEntry(new ZipEntry("resources/wildfly/artifact-versions.properties"));
+            out.write(String.join("\n", artifactVersions).getBytes(StandardCharsets.UTF_8));
+        }
+        return zip;
+    }
+}
@@ -0,0 +1,53 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.Stream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalFeaturePackIndexTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void indexFeaturePacksAndPlainZips() throws Exception {
+        zip(temp.resolve("org/test/fp/1.0.0/fp-1.0.0.zip"), "feature-pack.xml");
+        zip(temp.resolve("org/test/other/1.0.0/other-1.0.0.zip"), "readme.txt");
+
+        final LocalFeaturePackIndex index = LocalFeaturePackIndex.scan(temp);
+
+        assertThat(index.containsZip(new Stream("org.test", "fp", "1.0.0"))).isTrue();
+        assertThat(index.isFeaturePack(new Stream("org.test", "fp", "1.0.0"))).isTrue();
+        assertThat(index.containsZip(new Stream("org.test", "other", "1.0.0"))).isTrue();
+        assertThat(index.isFeaturePack(new Stream("org.test", "other", "1.0.0"))).isFalse();
+        assertThat(index.containsZip(new Stream("org.test", "fp", "1.0.1"))).isFalse();
+    }
+
+    @Test
+    public void doNotFollowDirectoryLinks() throws Exception {
+        zip(temp.resolve("org/test/fp/1.0.0/fp-1.0.0.zip"), "feature-pack.xml");
+        // a link back to the repository root would make the walk recurse forever
+        Files.createSymbolicLink(temp.resolve("org/test/loop"), temp);
+
+        final LocalFeaturePackIndex index = LocalFeaturePackIndex.scan(temp);
+
+        assertThat(index.isFeaturePack(new Stream("org.test", "fp", "1.0.0"))).isTrue();
+    }
+
+    private static void zip(Path zip, String entryName) throws Exception {
+        Files.createDirectories(zip.getParent());
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry(entryName));
+            out.write("content".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+    }
+}
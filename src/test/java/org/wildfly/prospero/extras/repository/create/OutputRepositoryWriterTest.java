@@ -0,0 +1,67 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputRepositoryWriterTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void layoutPathIncludesClassifierAndExtension() {
+        assertThat(OutputRepositoryWriter.layoutPath(new DefaultArtifact("org.test", "test-one", "sources", "jar", "1.0.0")))
+                .isEqualTo("org/test/test-one/1.0.0/test-one-1.0.0-sources.jar");
+        assertThat(OutputRepositoryWriter.layoutPath(new DefaultArtifact("org.test", "test-one", null, "pom", "1.0.0")))
+                .isEqualTo("org/test/test-one/1.0.0/test-one-1.0.0.pom");
+    }
+
+    @Test
+    public void writeArtifactWithChecksumsAndMetadata() throws Exception {
+        final Path repository = temp.resolve("repository");
+        final OutputRepositoryWriter writer = new OutputRepositoryWriter(repository, OutputRepositoryWriter::moveFile);
+
+        writer.write(artifact("1.0.0"));
+        writer.write(artifact("1.1.0"));
+        writer.writeMetadata();
+
+        final Path artifactDir = repository.resolve("org/test/test-one");
+        assertThat(artifactDir.resolve("1.0.0/test-one-1.0.0.jar")).exists();
+        // sha1 of "test"
+        assertThat(artifactDir.resolve("1.0.0/test-one-1.0.0.jar.sha1")).hasContent("a94a8fe5ccb19ba61c4c0873d391e987982fbbd3");
+        assertThat(artifactDir.resolve("1.0.0/test-one-1.0.0.jar.md5")).exists();
+        assertThat(artifactDir.resolve("maven-metadata.xml.sha1")).exists();
+        assertThat(Files.readString(artifactDir.resolve("maven-metadata.xml")))
+                .contains("<version>1.0.0</version>")
+                .contains("<version>1.1.0</version>")
+                .contains("<release>1.1.0</release>");
+    }
+
+    @Test
+    public void linkedArtifactKeepsSourceFile() throws Exception {
+        final Path repository = temp.resolve("repository");
+        final OutputRepositoryWriter writer = new OutputRepositoryWriter(repository, LinkMode.HARDLINK);
+
+        final DefaultArtifact artifact = artifact("1.0.0");
+        writer.write(artifact);
+        // writing again replaces the existing link
+        writer.write(artifact);
+        writer.writeMetadata();
+
+        assertThat(artifact.getFile().toPath()).exists();
+        assertThat(repository.resolve("org/test/test-one/1.0.0/test-one-1.0.0.jar")).hasContent("test");
+        assertThat(repository.resolve("org/test/test-one/1.0.0/test-one-1.0.0.jar.sha1")).hasContent("a94a8fe5ccb19ba61c4c0873d391e987982fbbd3");
+    }
+
+    private DefaultArtifact artifact(String version) throws Exception {
+        final Path file = Files.createTempFile(temp, "artifact", "jar");
+        Files.writeString(file, "test");
+        return (DefaultArtifact) new DefaultArtifact("org.test", "test-one", "jar", version).setFile(file.toFile());
+    }
+}
@@ -0,0 +1,180 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelArtifactResolverTest {
+
+    private static final RemoteRepository REPO_ONE = new RemoteRepository.Builder("one", "default", "http://one.test").build();
+    private static final RemoteRepository REPO_TWO = new RemoteRepository.Builder("two", "default", "http://two.test").build();
+
+    private final Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+
+    @Test
+    public void limitConcurrentRequestsPerRepository() throws Exception {
+        final RepositorySystem system = repositorySystem(request -> {
+            final String repositoryId = request.getRepositories().get(0).getId();
+            final int current = running.computeIfAbsent(repositoryId, k -> new AtomicInteger()).incrementAndGet();
+            maxRunning.computeIfAbsent(repositoryId, k -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.get(repositoryId).decrementAndGet();
+            }
+            return resolved(request);
+        });
+        final ParallelArtifactResolver resolver = new ParallelArtifactResolver(system, null, 8, 2, false);
+
+        final List<ArtifactRequest> requests = new ArrayList<>(requests(20, REPO_ONE));
+        requests.addAll(requests(20, REPO_TWO));
+        resolver.resolve(requests, batch -> {});
+
+        assertThat(maxRunning.get("one").get()).isBetween(1, 2);
+        assertThat(maxRunning.get("two").get()).isBetween(1, 2);
+    }
+
+    @Test
+    public void deliverEveryResultExactlyOnce() throws Exception {
+        final ParallelArtifactResolver resolver = new ParallelArtifactResolver(repositorySystem(this::resolved), null, 4, 4, false);
+        final List<ArtifactRequest> requests = requests(250, REPO_ONE);
+
+        final List<Artifact> delivered = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger batches = new AtomicInteger();
+        final Thread caller = Thread.currentThread();
+        final List<ArtifactResult> results = resolver.resolve(requests, batch -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            assertThat(batch.size()).isBetween(1, 100);
+            batches.incrementAndGet();
+            delivered.addAll(batch);
+        });
+
+        assertThat(results).hasSize(250);
+        assertThat(delivered).hasSize(250);
+        assertThat(delivered.stream().map(Artifact::getArtifactId).collect(Collectors.toSet()))
+                .isEqualTo(requests.stream().map(r -> r.getArtifact().getArtifactId()).collect(Collectors.toSet()));
+        assertThat(batches.get()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    public void tryNextRepositoryAfterFailure() throws Exception {
+        final Set<String> attempts = ConcurrentHashMap.newKeySet();
+        final ParallelArtifactResolver resolver = new ParallelArtifactResolver(repositorySystem(request -> {
+            final String repositoryId = request.getRepositories().get(0).getId();
+            attempts.add(request.getArtifact().getArtifactId() + "@" + repositoryId);
+            if (repositoryId.equals("one")) {
+                return null;
+            }
+            return resolved(request);
+        }), null, 2, 2, false);
+
+        final List<Artifact> delivered = new ArrayList<>();
+        final List<ArtifactResult> results = resolver.resolve(requests(3, REPO_ONE, REPO_TWO), delivered::addAll);
+
+        assertThat(results).hasSize(3);
+        assertThat(results.stream().allMatch(ArtifactResult::isResolved)).isTrue();
+        assertThat(results.stream().map(r -> r.getRepository().getId()).collect(Collectors.toSet()))
+                .containsExactly("two");
+        assertThat(delivered).hasSize(3);
+        assertThat(attempts).hasSize(6);
+    }
+
+    @Test
+    public void unresolvedArtifactsAreReportedButNotDelivered() throws Exception {
+        final ParallelArtifactResolver resolver = new ParallelArtifactResolver(repositorySystem(request ->
+                request.getArtifact().getArtifactId().equals("artifact-1") ? null : resolved(request)), null, 2, 2, false);
+
+        final List<Artifact> delivered = new ArrayList<>();
+        final List<ArtifactResult> results = resolver.resolve(requests(3, REPO_ONE, REPO_TWO), delivered::addAll);
+
+        final List<ArtifactResult> failed = results.stream().filter(r -> !r.isResolved()).collect(Collectors.toList());
+        assertThat(failed).hasSize(1);
+        assertThat(failed.get(0).getRequest().getArtifact().getArtifactId()).isEqualTo("artifact-1");
+        // one exception from each of the repositories
+        assertThat(failed.get(0).getExceptions()).hasSize(2);
+        assertThat(delivered.stream().map(Artifact::getArtifactId).collect(Collectors.toSet()))
+                .containsExactlyInAnyOrder("artifact-0", "artifact-2");
+    }
+
+    @Test
+    public void consumerFailureIsPropagated() {
+        final ParallelArtifactResolver resolver = new ParallelArtifactResolver(repositorySystem(this::resolved), null, 2, 2, false);
+
+        assertThatThrownBy(() -> resolver.resolve(requests(5, REPO_ONE), batch -> {
+            throw new IOException("Unable to write");
+        })).isInstanceOf(IOException.class).hasMessageContaining("Unable to write");
+    }
+
+    @Test
+    public void repositorySystemFailureIsPropagated() {
+        final ParallelArtifactResolver resolver = new ParallelArtifactResolver(repositorySystem(request -> {
+            throw new IllegalStateException("Broken session");
+        }), null, 2, 2, false);
+
+        assertThatThrownBy(() -> resolver.resolve(requests(5, REPO_ONE), batch -> {}))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Broken session");
+    }
+
+    private ArtifactResult resolved(ArtifactRequest request) {
+        final ArtifactResult result = new ArtifactResult(request);
+        // an artifact is resolved only if it has a file
+        result.setArtifact(request.getArtifact().setFile(new File(request.getArtifact().getArtifactId() + ".jar")));
+        result.setRepository(request.getRepositories().get(0));
+        return result;
+    }
+
+    private static List<ArtifactRequest> requests(int count, RemoteRepository... repositories) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ArtifactRequest(new DefaultArtifact("org.test", "artifact-" + i, "jar", "1.0.0"),
+                        List.of(repositories), null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a {@code RepositorySystem} resolving artifacts with {@code resolver}. If the {@code resolver} returns
+     * {@code null}, the artifact is not found.
+     */
+    private static RepositorySystem repositorySystem(Function<ArtifactRequest, ArtifactResult> resolver) {
+        return (RepositorySystem) Proxy.newProxyInstance(ParallelArtifactResolverTest.class.getClassLoader(),
+                new Class<?>[]{RepositorySystem.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("resolveArtifact")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    final ArtifactRequest request = (ArtifactRequest) args[1];
+                    final ArtifactResult result = resolver.apply(request);
+                    if (result == null) {
+                        final ArtifactResult failed = new ArtifactResult(request);
+                        failed.addException(new ArtifactNotFoundException(request.getArtifact(), request.getRepositories().get(0)));
+                        throw new ArtifactResolutionException(List.of(failed));
+                    }
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,131 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PomClosureResolverTest {
+
+    @TempDir
+    Path temp;
+
+    private final Map<String, AtomicInteger> downloads = new ConcurrentHashMap<>();
+    private PomClosureResolver resolver;
+
+    @BeforeEach
+    public void setUp() {
+        resolver = new PomClosureResolver((groupId, artifactId, version) -> {
+            downloads.computeIfAbsent(artifactId, k -> new AtomicInteger()).incrementAndGet();
+            return temp.resolve("remote").resolve(artifactId + ".pom").toFile();
+        }, 4, false);
+    }
+
+    @Test
+    public void resolveParentsOfAllPoms() throws Exception {
+        remotePom("parent", "grandparent");
+        remotePom("grandparent", null);
+        remotePom("other-parent", "grandparent");
+        final Path one = pom(temp.resolve("one.pom"), "one", "parent");
+        final Path two = pom(temp.resolve("two.pom"), "two", "parent");
+        final Path three = pom(temp.resolve("three.pom"), "three", "other-parent");
+
+        final Set<Artifact> resolved = resolver.resolve(List.of(one, two, three));
+
+        assertThat(resolved.stream().map(Artifact::getArtifactId).collect(Collectors.toSet()))
+                .containsExactlyInAnyOrder("parent", "grandparent", "other-parent");
+        assertThat(resolved.stream().map(Artifact::getExtension).collect(Collectors.toSet()))
+                .containsExactly("pom");
+        // every pom is resolved only once
+        assertThat(downloads.values().stream().map(AtomicInteger::get).collect(Collectors.toSet()))
+                .containsExactly(1);
+    }
+
+    @Test
+    public void noParents() throws Exception {
+        final Path one = pom(temp.resolve("one.pom"), "one", null);
+
+        assertThat(resolver.resolve(List.of(one))).isEmpty();
+        assertThat(downloads).isEmpty();
+    }
+
+    @Test
+    public void resolveImportedBomsWithInheritedVersions() throws Exception {
+        remotePom("parent", null, "<properties><bom.version>2.0.0</bom.version></properties>");
+        remotePom("bom", "parent", importBom("nested-bom", "${project.version}"));
+        remotePom("nested-bom", null, "");
+        final Path one = pom(temp.resolve("one.pom"), "one", "parent", importBom("bom", "${bom.version}"));
+        final Path two = pom(temp.resolve("two.pom"), "two", "parent", importBom("bom", "2.0.0"));
+
+        final Set<Artifact> resolved = resolver.resolve(List.of(one, two));
+
+        assertThat(resolved.stream().map(a -> a.getArtifactId() + ":" + a.getVersion()).collect(Collectors.toSet()))
+                .containsExactlyInAnyOrder("parent:1.0.0", "bom:2.0.0", "nested-bom:1.0.0");
+        assertThat(downloads.values().stream().map(AtomicInteger::get).collect(Collectors.toSet()))
+                .containsExactly(1);
+    }
+
+    @Test
+    public void ignoreImportsWithUndefinedProperties() throws Exception {
+        final Path one = pom(temp.resolve("one.pom"), "one", null, importBom("bom", "${undefined}"));
+
+        assertThat(resolver.resolve(List.of(one))).isEmpty();
+        assertThat(downloads).isEmpty();
+    }
+
+    @Test
+    public void interpolateNestedProperties() {
+        final Properties properties = new Properties();
+        properties.setProperty("a", "${b}.Final");
+        properties.setProperty("b", "1.${c}");
+        properties.setProperty("c", "2");
+
+        assertThat(PomClosureResolver.interpolate("${a}", properties)).isEqualTo("1.2.Final");
+        assertThat(PomClosureResolver.interpolate("1.0.0", properties)).isEqualTo("1.0.0");
+        assertThat(PomClosureResolver.interpolate("${a}-${d}", properties)).isNull();
+    }
+
+    private void remotePom(String artifactId, String parent) throws Exception {
+        remotePom(artifactId, parent, "");
+    }
+
+    private void remotePom(String artifactId, String parent, String content) throws Exception {
+        Files.createDirectories(temp.resolve("remote"));
+        pom(temp.resolve("remote").resolve(artifactId + ".pom"), artifactId, parent, content);
+    }
+
+    private static String importBom(String artifactId, String version) {
+        return "<dependencyManagement><dependencies><dependency><groupId>org.test</groupId><artifactId>" + artifactId
+                + "</artifactId><version>" + version + "</version><type>pom</type><scope>import</scope>"
+                + "</dependency></dependencies></dependencyManagement>";
+    }
+
+    private static Path pom(Path file, String artifactId, String parent) throws Exception {
+        return pom(file, artifactId, parent, "");
+    }
+
+    private static Path pom(Path file, String artifactId, String parent, String content) throws Exception {
+        final StringBuilder sb = new StringBuilder("<project><modelVersion>4.0.0</modelVersion>");
+        if (parent != null) {
+            sb.append("<parent><groupId>org.test</groupId><artifactId>").append(parent)
+                    .append("</artifactId><version>1.0.0</version></parent>");
+        }
+        sb.append("<groupId>org.test</groupId><artifactId>").append(artifactId)
+                .append("</artifactId><version>1.0.0</version><packaging>pom</packaging>")
+                .append(content).append("</project>");
+        Files.writeString(file, sb.toString());
+        return file;
+    }
+}
@@ -0,0 +1,103 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryIndexTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void missingRepositoryContainsNothing() throws Exception {
+        final RepositoryIndex index = RepositoryIndex.of(temp.resolve("missing"));
+
+        assertThat(index.contains(new DefaultArtifact("org.test", "test-one", "jar", "1.0.0"))).isFalse();
+    }
+
+    @Test
+    public void artifactWithInvalidChecksumIsNotIndexed() throws Exception {
+        final Path repository = temp.resolve("repository");
+        final OutputRepositoryWriter writer = new OutputRepositoryWriter(repository, LinkMode.COPY);
+        writer.write(artifact("1.0.0"));
+        writer.write(artifact("1.1.0"));
+        writer.writeMetadata();
+        Files.writeString(repository.resolve("org/test/test-one/1.1.0/test-one-1.1.0.jar"), "corrupted");
+
+        final RepositoryIndex index = RepositoryIndex.of(repository);
+
+        assertThat(index.contains(new DefaultArtifact("org.test", "test-one", "jar", "1.0.0"))).isTrue();
+        assertThat(index.contains(new DefaultArtifact("org.test", "test-one", "jar", "1.1.0"))).isFalse();
+        assertThat(index.contains(new DefaultArtifact("org.test", "test-one", "jar", "1.2.0"))).isFalse();
+    }
+
+    @Test
+    public void checksumIsVerifiedOncePerIndex() throws Exception {
+        final Path repository = temp.resolve("repository");
+        final OutputRepositoryWriter writer = new OutputRepositoryWriter(repository, LinkMode.COPY);
+        writer.write(artifact("1.0.0"));
+        final DefaultArtifact artifact = new DefaultArtifact("org.test", "test-one", "jar", "1.0.0");
+
+        final RepositoryIndex index = RepositoryIndex.of(repository);
+        assertThat(index.contains(artifact)).isTrue();
+        Files.writeString(repository.resolve("org/test/test-one/1.0.0/test-one-1.0.0.jar"), "corrupted");
+
+        assertThat(index.contains(artifact)).isTrue();
+        assertThat(RepositoryIndex.of(repository).contains(artifact)).isFalse();
+    }
+
+    @Test
+    public void addedArtifactsAreIndexed() throws Exception {
+        final RepositoryIndex index = RepositoryIndex.of(temp.resolve("repository"));
+        final DefaultArtifact artifact = new DefaultArtifact("org.test", "test-one", "jar", "1.0.0");
+
+        index.add(artifact);
+
+        assertThat(index.contains(artifact)).isTrue();
+    }
+
+    @Test
+    public void pruneRemovesUnusedVersionsAndUpdatesMetadata() throws Exception {
+        final Path repository = temp.resolve("repository");
+        final OutputRepositoryWriter writer = new OutputRepositoryWriter(repository, LinkMode.COPY);
+        writer.write(artifact("1.0.0"));
+        writer.write(artifact("1.1.0"));
+        writer.writeMetadata();
+
+        final int removed = RepositoryIndex.prune(repository, Set.of("org.test:test-one:1.0.0"));
+
+        final Path artifactDir = repository.resolve("org/test/test-one");
+        assertThat(removed).isEqualTo(1);
+        assertThat(artifactDir.resolve("1.0.0/test-one-1.0.0.jar")).exists();
+        assertThat(artifactDir.resolve("1.1.0")).doesNotExist();
+        assertThat(Files.readString(artifactDir.resolve("maven-metadata.xml")))
+                .contains("<version>1.0.0</version>")
+                .doesNotContain("<version>1.1.0</version>");
+    }
+
+    @Test
+    public void pruneRemovesArtifactWithNoVersionsLeft() throws Exception {
+        final Path repository = temp.resolve("repository");
+        final OutputRepositoryWriter writer = new OutputRepositoryWriter(repository, LinkMode.COPY);
+        writer.write(artifact("1.0.0"));
+        writer.writeMetadata();
+
+        RepositoryIndex.prune(repository, Set.of());
+
+        assertThat(repository.resolve("org")).doesNotExist();
+        assertThat(repository).exists();
+    }
+
+    private DefaultArtifact artifact(String version) throws Exception {
+        final Path file = Files.createTempFile(temp, "artifact", "jar");
+        Files.writeString(file, "test-" + version);
+        return (DefaultArtifact) new DefaultArtifact("org.test", "test-one", "jar", version).setFile(file.toFile());
+    }
+}
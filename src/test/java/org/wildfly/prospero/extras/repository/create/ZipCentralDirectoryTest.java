@@ -0,0 +1,61 @@
+package org.wildfly.prospero.extras.repository.create;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZipCentralDirectoryTest {
+
+    @Test
+    public void readEntryNamesFromTail() throws Exception {
+        final byte[] zip = createZip("a comment", "resources/test.txt", "feature-pack.xml");
+        final byte[] tail = Arrays.copyOfRange(zip, Math.max(0, zip.length - ZipCentralDirectory.MAX_TAIL_SIZE), zip.length);
+
+        final ZipCentralDirectory centralDirectory = ZipCentralDirectory.locate(tail);
+        final int start = (int) (centralDirectory.getOffset() - (zip.length - tail.length));
+
+        assertThat(centralDirectory.entryNames(tail, start))
+                .containsExactly("resources/test.txt", "feature-pack.xml");
+    }
+
+    @Test
+    public void readEntryNamesFromSeparateBuffer() throws Exception {
+        final byte[] zip = createZip(null, "one.txt", "two.txt");
+        final ZipCentralDirectory centralDirectory = ZipCentralDirectory.locate(zip);
+        final byte[] directory = Arrays.copyOfRange(zip, (int) centralDirectory.getOffset(),
+                (int) (centralDirectory.getOffset() + centralDirectory.getSize()));
+
+        final List<String> names = centralDirectory.entryNames(directory, 0);
+
+        assertThat(names).containsExactly("one.txt", "two.txt");
+    }
+
+    @Test
+    public void failIfNotZip() {
+        assertThatThrownBy(() -> ZipCentralDirectory.locate("not a zip file, just some text".getBytes()))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static byte[] createZip(String comment, String... entries) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bytes)) {
+            if (comment != null) {
+                zos.setComment(comment);
+            }
+            for (String entry : entries) {
+                zos.putNextEntry(new ZipEntry(entry));
+                zos.write(("content of " + entry).getBytes());
+                zos.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
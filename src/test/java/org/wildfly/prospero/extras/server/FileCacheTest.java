@@ -0,0 +1,83 @@
+package org.wildfly.prospero.extras.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileCacheTest {
+
+    @TempDir
+    Path temp;
+
+    private final List<Path> loaded = new ArrayList<>();
+
+    private final FileCache<String> cache = new FileCache<>(2, p -> {
+        loaded.add(p.getFileName());
+        return Files.readString(p);
+    });
+
+    @Test
+    public void reuseCachedValue() throws Exception {
+        final Path file = write("a.txt", "one");
+
+        assertThat(cache.get(file)).isEqualTo("one");
+        assertThat(cache.get(temp.resolve("./a.txt"))).isEqualTo("one");
+        assertThat(loaded).containsExactly(Path.of("a.txt"));
+    }
+
+    @Test
+    public void reloadChangedFile() throws Exception {
+        final Path file = write("a.txt", "one");
+        assertThat(cache.get(file)).isEqualTo("one");
+
+        Files.writeString(file, "two");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+        assertThat(cache.get(file)).isEqualTo("two");
+        assertThat(loaded).containsExactly(Path.of("a.txt"), Path.of("a.txt"));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        final Path a = write("a.txt", "a");
+        final Path b = write("b.txt", "b");
+        final Path c = write("c.txt", "c");
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.get(a);
+        cache.get(b);
+        assertThat(loaded).containsExactly(Path.of("a.txt"), Path.of("b.txt"), Path.of("c.txt"), Path.of("b.txt"));
+    }
+
+    @Test
+    public void reloadExpiredValue() throws Exception {
+        final FileCache<String> expiring = new FileCache<>(2, 1, p -> {
+            loaded.add(p.getFileName());
+            return Files.readString(p);
+        });
+        final Path file = write("a.txt", "one");
+
+        assertThat(expiring.get(file)).isEqualTo("one");
+        Thread.sleep(10);
+        assertThat(expiring.get(file)).isEqualTo("one");
+        assertThat(loaded).containsExactly(Path.of("a.txt"), Path.of("a.txt"));
+    }
+
+    private Path write(String name, String content) throws Exception {
+        final Path file = temp.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,229 @@
+package org.wildfly.prospero.extras.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.Stream;
+import org.wildfly.prospero.extras.manifest.diff.DiffWriter;
+import org.wildfly.prospero.extras.manifest.diff.ManifestsDiffCommand;
+import org.wildfly.prospero.extras.manifest.merge.ManifestMergeCommand;
+import org.wildfly.prospero.extras.manifest.merge.VersionMergeStrategy;
+import org.wildfly.prospero.extras.manifest.subtract.ManifestSubtractCommand;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ManifestServerTest {
+
+    @TempDir
+    Path temp;
+
+    private ManifestServer server;
+    private Path tokenFile;
+    private Path manifestOne;
+    private Path manifestTwo;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        tokenFile = temp.resolve("server.token");
+        server = new ManifestServer(0, 2, 10, 0);
+        server.start(tokenFile);
+
+        manifestOne = writeManifest("one.yaml", new Stream("org.test", "a", "1.0.0"),
+                new Stream("org.test", "b", "1.0.0"), new Stream("org.test", "c", "1.0.0"));
+        manifestTwo = writeManifest("two.yaml", new Stream("org.test", "a", "1.1.0"),
+                new Stream("org.test", "b", "1.0.0"), new Stream("org.test", "d", "1.0.0"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void tokenIsReadableOnlyByOwner() throws Exception {
+        assertThat(ManifestServer.readToken(tokenFile)).hasSize(64);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile))).isEqualTo("rw-------");
+        }
+    }
+
+    @Test
+    public void rejectRequestsWithoutValidToken() throws Exception {
+        assertThat(send("GET", "/status", null).statusCode()).isEqualTo(403);
+        assertThat(send("GET", "/status", "invalid").statusCode()).isEqualTo(403);
+        assertThat(send("POST", "/shutdown", null).statusCode()).isEqualTo(403);
+
+        assertThat(send("GET", "/status", ManifestServer.readToken(tokenFile)).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    public void shutdownRequiresPost() throws Exception {
+        final String token = ManifestServer.readToken(tokenFile);
+
+        final HttpResponse<String> get = send("GET", "/shutdown", token);
+        assertThat(get.statusCode()).isEqualTo(405);
+        assertThat(send("GET", "/status", token).statusCode()).isEqualTo(200);
+
+        assertThat(send("POST", "/shutdown", token).statusCode()).isEqualTo(200);
+        server.awaitStop();
+        assertThat(tokenFile).doesNotExist();
+    }
+
+    @Test
+    public void mergeManifests() throws Exception {
+        final HttpResponse<String> latest = get("/manifest-merge", "manifest", manifestOne, "manifest", manifestTwo);
+        final HttpResponse<String> first = get("/manifest-merge", "manifest", manifestOne, "manifest", manifestTwo,
+                "mode", "first", "name", "test-name", "id", "test-id");
+
+        assertThat(latest.statusCode()).isEqualTo(200);
+        assertThat(latest.body()).isEqualTo(ChannelManifestMapper.toYaml(ManifestMergeCommand.merge(
+                List.of(read(manifestOne), read(manifestTwo)), VersionMergeStrategy.Strategies.LATEST, "merged-manifest", null)));
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.body()).isEqualTo(ChannelManifestMapper.toYaml(ManifestMergeCommand.merge(
+                List.of(read(manifestOne), read(manifestTwo)), VersionMergeStrategy.Strategies.FIRST, "test-name", "test-id")));
+    }
+
+    @Test
+    public void subtractManifests() throws Exception {
+        final HttpResponse<String> response = get("/manifest-subtract", "manifest", manifestOne, "manifest", manifestTwo,
+                "exclude", "org.test:b");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(ChannelManifestMapper.toYaml(ManifestSubtractCommand.subtract(
+                read(manifestOne), read(manifestTwo), List.of("org.test:b"))));
+    }
+
+    @Test
+    public void diffManifests() throws Exception {
+        for (DiffWriter.Format format : DiffWriter.Format.values()) {
+            final HttpResponse<String> response = get("/manifest-diff", "manifest", manifestOne, "manifest", manifestTwo,
+                    "format", format.name().toLowerCase());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).isEqualTo(diff(manifestOne, manifestTwo, format));
+        }
+        // TEXT is the default format
+        assertThat(get("/manifest-diff", "manifest", manifestOne, "manifest", manifestTwo).body())
+                .isEqualTo(diff(manifestOne, manifestTwo, DiffWriter.Format.TEXT));
+    }
+
+    @Test
+    public void queryVersion() throws Exception {
+        final Path channel = writeChannel(manifestOne);
+
+        final HttpResponse<String> found = get("/channel/query-version", "channel", channel, "groupId", "org.test",
+                "artifactId", "a");
+        final HttpResponse<String> missing = get("/channel/query-version", "channel", channel, "groupId", "org.test",
+                "artifactId", "d");
+
+        assertThat(found.statusCode()).isEqualTo(200);
+        assertThat(found.body()).isEqualTo("1.0.0" + System.lineSeparator());
+        assertThat(missing.statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void rejectInvalidArguments() throws Exception {
+        assertThat(get("/manifest-merge", "manifest", manifestOne, "manifest", manifestTwo, "mode", "unknown").statusCode())
+                .isEqualTo(400);
+        assertThat(get("/manifest-diff", "manifest", manifestOne, "manifest", manifestTwo, "format", "unknown").statusCode())
+                .isEqualTo(400);
+        assertThat(get("/manifest-subtract", "manifest", manifestOne).statusCode()).isEqualTo(400);
+        assertThat(get("/channel/query-version", "channel", writeChannel(manifestOne), "groupId", "org.test").statusCode())
+                .isEqualTo(400);
+
+        final HttpResponse<String> missingFile = get("/manifest-diff", "manifest", manifestOne,
+                "manifest", temp.resolve("missing.yaml"));
+        assertThat(missingFile.statusCode()).isEqualTo(400);
+        assertThat(missingFile.body()).contains("missing.yaml");
+    }
+
+    @Test
+    public void modifiedManifestIsReloaded() throws Exception {
+        final HttpResponse<String> before = get("/manifest-diff", "manifest", manifestOne, "manifest", manifestTwo);
+
+        writeManifest("two.yaml", new Stream("org.test", "a", "2.0.0"));
+        // make sure the change is visible even if the file system has a coarse timestamp resolution
+        Files.setLastModifiedTime(manifestTwo, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        final HttpResponse<String> after = get("/manifest-diff", "manifest", manifestOne, "manifest", manifestTwo);
+
+        assertThat(after.statusCode()).isEqualTo(200);
+        assertThat(after.body()).isNotEqualTo(before.body());
+        assertThat(after.body()).isEqualTo(diff(manifestOne, manifestTwo, DiffWriter.Format.TEXT));
+    }
+
+    private Path writeManifest(String fileName, Stream... streams) throws Exception {
+        final ChannelManifest manifest = new ChannelManifest("1.0.0", fileName, null, null, Collections.emptyList(),
+                List.of(streams));
+        return Files.writeString(temp.resolve(fileName), ChannelManifestMapper.toYaml(manifest));
+    }
+
+    private Path writeChannel(Path manifest) throws Exception {
+        final Path repository = Files.createDirectories(temp.resolve("repository"));
+        return Files.writeString(temp.resolve("channel.yaml"), String.format("schemaVersion: \"2.0.0\"%n" +
+                "name: test-channel%n" +
+                "repositories:%n" +
+                "  - id: test%n" +
+                "    url: %s%n" +
+                "manifest:%n" +
+                "  url: %s%n", repository.toUri(), manifest.toUri()));
+    }
+
+    private static ChannelManifest read(Path manifest) throws Exception {
+        return ChannelManifestMapper.from(manifest.toUri().toURL());
+    }
+
+    /**
+     * @return - the changes as written by the {@code manifest-diff} command
+     */
+    private static String diff(Path one, Path two, DiffWriter.Format format) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PrintStream printStream = new PrintStream(out, false, StandardCharsets.UTF_8)) {
+            final DiffWriter writer = DiffWriter.create(format, printStream);
+            ManifestsDiffCommand.manifestDiff(read(one), read(two), writer);
+            writer.finish();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends an authorized GET request to {@code path} with query parameters given as name and value pairs.
+     */
+    private HttpResponse<String> get(String path, Object... params) throws Exception {
+        final StringBuilder query = new StringBuilder();
+        for (int i = 0; i < params.length; i += 2) {
+            query.append(i == 0 ? "?" : "&")
+                    .append(params[i])
+                    .append('=')
+                    .append(URLEncoder.encode(params[i + 1].toString(), StandardCharsets.UTF_8));
+        }
+        return send("GET", path + query, ManifestServer.readToken(tokenFile));
+    }
+
+    private HttpResponse<String> send(String method, String path, String token) throws Exception {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody());
+        if (token != null) {
+            request.header(ManifestServer.TOKEN_HEADER, token);
+        }
+        return HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
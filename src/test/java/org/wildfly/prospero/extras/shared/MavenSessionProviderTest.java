@@ -0,0 +1,101 @@
+package org.wildfly.prospero.extras.shared;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MavenSessionProviderTest {
+
+    @BeforeEach
+    public void setUp() {
+        MavenSessionProvider.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MavenSessionProvider.reset();
+    }
+
+    @Test
+    public void sessionIsCreatedOnlyOnce() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<MavenSessionProvider>> providers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                providers.add(executor.submit(MavenSessionProvider::getInstance));
+            }
+            for (Future<MavenSessionProvider> provider : providers) {
+                assertThat(provider.get()).isSameAs(MavenSessionProvider.getInstance());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void configurationIsUsedToCreateTheSession() throws Exception {
+        MavenSessionProvider.configure(MavenSessionProvider.config().setChecksumPolicy(RepositoryPolicy.CHECKSUM_POLICY_WARN));
+
+        assertThat(MavenSessionProvider.getInstance().getSession().getChecksumPolicy())
+                .isEqualTo(RepositoryPolicy.CHECKSUM_POLICY_WARN);
+    }
+
+    @Test
+    public void cannotConfigureCreatedSession() throws Exception {
+        MavenSessionProvider.getInstance();
+
+        assertThatThrownBy(() -> MavenSessionProvider.configure(MavenSessionProvider.config().setOffline(true)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void newSessionIsACopy() throws Exception {
+        final MavenSessionProvider provider = MavenSessionProvider.getInstance();
+
+        assertThat(provider.newSession()).isNotSameAs(provider.getSession());
+        assertThat(provider.newSession().getCache()).isSameAs(provider.getSession().getCache());
+    }
+
+    @Test
+    public void newSessionNotifiesConfiguredTransferListener() throws Exception {
+        final List<String> started = new ArrayList<>();
+        MavenSessionProvider.configure(MavenSessionProvider.config().setTransferListener(new AbstractTransferListener() {
+            @Override
+            public void transferStarted(TransferEvent event) {
+                started.add("configured");
+            }
+        }));
+
+        final DefaultRepositorySystemSession session = MavenSessionProvider.getInstance().newSession(new AbstractTransferListener() {
+            @Override
+            public void transferStarted(TransferEvent event) {
+                started.add("additional");
+            }
+        });
+        session.getTransferListener().transferStarted(new TransferEvent.Builder(session,
+                new TransferResource("test", "http://test", "test.jar", null, null)).build());
+
+        assertThat(started).containsExactly("configured", "additional");
+    }
+
+    @Test
+    public void rejectUnknownChecksumPolicy() {
+        assertThat(MavenSessionProvider.config().setChecksumPolicy(RepositoryPolicy.CHECKSUM_POLICY_WARN)).isNotNull();
+        assertThatThrownBy(() -> MavenSessionProvider.config().setChecksumPolicy("foo"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}